@@ -26,8 +26,9 @@
 
 package dev.hboyd.voidQueue.api;
 
-@SuppressWarnings("unused")
-// TODO: Update to follow new implementation
+/**
+ * Implemented by the VoidQueue plugin instance, which can be looked up through the Velocity plugin manager.
+ */
 public interface VoidQueue {
     dev.hboyd.voidQueue.api.queues.VoidQueue getQueue();
 }
@@ -27,27 +27,44 @@
 package dev.hboyd.voidQueue.api.events;
 
 import com.velocitypowered.api.proxy.Player;
+import dev.hboyd.voidQueue.api.queues.QueueType;
 import dev.hboyd.voidQueue.api.queues.VoidQueue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-@SuppressWarnings("unused")
-// TODO: Update to follow new implementation
+/**
+ * Fired before a player joins the back of a queue. Players reconnecting to a position they already hold do not fire
+ * this event.
+ *
+ * <p>Cancelling the event disconnects the player with the given reason. Listeners may make their decision
+ * asynchronously by returning an {@link com.velocitypowered.api.event.EventTask}, the player waits in limbo
+ * until every listener has completed.</p>
+ */
 public class PlayerQueueEvent {
 	private final Player player;
+	private final QueueType queueType;
     private final VoidQueue voidQueue;
-	private String reason = null;
+	private @Nullable String reason = null;
 	private boolean cancelled = false;
 
-
-	public PlayerQueueEvent(Player player, VoidQueue voidQueue) {
+	public PlayerQueueEvent(@NotNull Player player, @NotNull QueueType queueType, @NotNull VoidQueue voidQueue) {
 		this.player = player;
+		this.queueType = queueType;
         this.voidQueue = voidQueue;
     }
 
-	public Player getPlayer() {
+	public @NotNull Player getPlayer() {
 		return player;
 	}
 
-	public String getReason() {
+	/**
+	 * @return the queue the player is joining
+	 */
+	public @NotNull QueueType getQueueType() {
+		return queueType;
+	}
+
+	public @Nullable String getReason() {
 		return reason;
 	}
 
@@ -59,11 +76,14 @@ public class PlayerQueueEvent {
         this.cancelled = cancelled;
     }
 
-    public void setReason(String reason) {
+    /**
+     * Sets the reason shown to the player if the event is cancelled.
+     */
+    public void setReason(@Nullable String reason) {
 		this.reason = reason;
 	}
 
-    public VoidQueue getVoidQueue() {
+    public @NotNull VoidQueue getVoidQueue() {
         return voidQueue;
     }
 }
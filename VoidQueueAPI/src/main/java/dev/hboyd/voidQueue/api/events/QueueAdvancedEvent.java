@@ -0,0 +1,122 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Some portions of this file were taken from https://github.com/JLyne/ProxyQueues
+ * These portions are Copyright (c) 2025 James Lyne
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.api.events;
+
+import dev.hboyd.voidQueue.api.queues.QueuePlayer;
+import dev.hboyd.voidQueue.api.queues.VoidQueue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Fired at most once per queue movement with the players who joined or left the queues since the previous event,
+ * rather than an event per player. Not fired when nothing has changed.
+ *
+ * <p>A player moving to another queue type is listed as leaving one queue and joining the other. A player who joins
+ * and leaves between two events is not reported.</p>
+ *
+ * <p>Every admission moves everyone behind it, so the position changes of players who stay queued are only worked
+ * out from the queue snapshots the first time they are asked for.</p>
+ */
+public final class QueueAdvancedEvent {
+    /**
+     * @param player           the player, with their new position
+     * @param previousPosition the position of the player in the previous event
+     */
+    public record PositionChange(@NotNull QueuePlayer player, int previousPosition) {
+        /**
+         * @return how many places the player moved forward, negative if they moved back
+         */
+        public int getDelta() {
+            return previousPosition - player.getPosition();
+        }
+    }
+
+    private final VoidQueue voidQueue;
+    private final List<QueuePlayer> enqueued;
+    private final List<QueuePlayer> admitted;
+    private final List<QueuePlayer> removed;
+    private final Supplier<List<PositionChange>> positionChangesSupplier;
+    private volatile @Nullable List<PositionChange> positionChanges;
+
+    /**
+     * @param positionChanges supplies the position changes once they are first asked for
+     */
+    public QueueAdvancedEvent(@NotNull VoidQueue voidQueue,
+                              @NotNull List<QueuePlayer> enqueued,
+                              @NotNull List<QueuePlayer> admitted,
+                              @NotNull List<QueuePlayer> removed,
+                              @NotNull Supplier<List<PositionChange>> positionChanges) {
+        this.voidQueue = voidQueue;
+        this.enqueued = Collections.unmodifiableList(enqueued);
+        this.admitted = Collections.unmodifiableList(admitted);
+        this.removed = Collections.unmodifiableList(removed);
+        this.positionChangesSupplier = positionChanges;
+    }
+
+    public @NotNull VoidQueue getVoidQueue() {
+        return voidQueue;
+    }
+
+    /**
+     * @return players who joined a queue, with their current position
+     */
+    public @NotNull List<QueuePlayer> getEnqueued() {
+        return enqueued;
+    }
+
+    /**
+     * @return players who left a queue by connecting to a server, with their last position
+     */
+    public @NotNull List<QueuePlayer> getAdmitted() {
+        return admitted;
+    }
+
+    /**
+     * @return players who left a queue for any other reason, such as disconnecting or being removed, with their
+     * last position
+     */
+    public @NotNull List<QueuePlayer> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return players who stayed queued and whose position or queue type changed, in queue order
+     */
+    public @NotNull List<PositionChange> getPositionChanges() {
+        List<PositionChange> changes = positionChanges;
+        if (changes == null) {
+            // Listeners racing here each work out the same list, so no lock is needed
+            changes = Collections.unmodifiableList(positionChangesSupplier.get());
+            positionChanges = changes;
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.api.queues;
+
+import com.velocitypowered.api.proxy.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A check players must pass before they are queued, added through {@link VoidQueue#addAdmissionCheck(Object, AdmissionCheck)}.
+ *
+ * <p>Checks run at login, in parallel with each other and with the player's limbo spawn, so a slow check only delays
+ * the player if it is still running once they are ready to be queued.</p>
+ */
+@FunctionalInterface
+public interface AdmissionCheck {
+    /**
+     * @return a future completing with the reason to turn the player away, or empty to let them join. A check that
+     * throws or completes exceptionally turns the player away
+     */
+    @NotNull CompletableFuture<Optional<String>> check(@NotNull Player player);
+}
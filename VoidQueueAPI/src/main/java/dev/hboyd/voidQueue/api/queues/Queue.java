@@ -26,29 +26,48 @@
 
 package dev.hboyd.voidQueue.api.queues;
 
-import com.velocitypowered.api.proxy.Player;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
 
-// TODO: Update to follow new implementation
+/**
+ * Read only view of a single queue type.
+ *
+ * <p>Queued counts are live. Positions, players and slot usage are read from a snapshot captured once per queue
+ * movement, so every method is cheap enough to call every tick.</p>
+ */
 public interface Queue {
-    void add(Player player, QueueType queueType);
-
-    QueuePlayer remove(Player player);
-
-    QueuePlayer remove(UUID uuid);
+    @NotNull QueueType getQueueType();
 
-    void clear();
+    int getQueuedCount();
 
-    void clear(QueueType queueType);
+    /**
+     * @return the number of server slots used by players of this queue type, including players still connecting
+     */
+    int getSlotsUsed();
 
-    void destroy();
+    /**
+     * @return the number of server slots reserved for this queue type
+     */
+    int getReservedSlots();
 
-    QueuePlayer[] getTopPlayers(QueueType queueType, int count);
+    /**
+     * @return the number of players of this queue type on a server
+     */
+    int getConnectedCount();
 
-    int getPositionOf(UUID uuid);
+    /**
+     * @return up to {@code count} players from the front of the queue, in queue order
+     */
+    @NotNull List<QueuePlayer> getTopPlayers(int count);
 
-    int getPositionOf(QueuePlayer queuePlayer);
+    @NotNull Optional<QueuePlayer> getQueuePlayer(@NotNull UUID uuid);
 
-    int getQueueSize(QueueType queueType);
+    /**
+     * @return the 1-based position of the player in this queue, or empty if they are not in it
+     */
+    @NotNull OptionalInt getPositionOf(@NotNull UUID uuid);
 }
@@ -25,49 +25,30 @@
  */
 
 package dev.hboyd.voidQueue.api.queues;
-import com.velocitypowered.api.proxy.Player;
-import net.elytrium.limboapi.api.player.LimboPlayer;
-import net.kyori.adventure.bossbar.BossBar;
 
-import java.time.Instant;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.UUID;
 
-
-@SuppressWarnings("unused")
-// TODO: Update to follow new implementation
+/**
+ * A player's place in a queue, as of the last queue snapshot.
+ *
+ * <p>Instances are immutable and are replaced rather than updated when the queue moves.</p>
+ */
 public interface QueuePlayer {
-    enum PlayerState {
-        QUEUED,
-        JOINING_GAME,
-        IN_GAME,
-        DISCONNECTED
-    }
-
-    void showBossBar();
-
-    void hideBossBar();
-
-    Player getPlayer();
-
-    LimboPlayer getLimboPlayer();
+    @NotNull UUID getUniqueId();
 
-    void setLimboPlayer(LimboPlayer limboPlayer);
+    @NotNull String getUsername();
 
-    BossBar getBossBar();
-
-    PlayerState getPlayerState();
-
-    PlayerState getLastPlayerState();
-
-    Instant getLastConnectionAttempt();
+    @NotNull QueueType getQueueType();
 
+    /**
+     * @return the 1-based position of the player in their queue, counting offline players
+     */
     int getPosition();
 
-    QueueType getQueueType();
-
-    Instant getLastSeen();
-
-    long getQueuedTime();
-
-    BossBar.Color getBossBarColor();
-}
\ No newline at end of file
+    /**
+     * @return whether the player was connected to the proxy when the snapshot was taken
+     */
+    boolean isOnline();
+}
@@ -27,116 +27,59 @@
 package dev.hboyd.voidQueue.api.queues;
 
 import com.velocitypowered.api.plugin.PluginContainer;
-import com.velocitypowered.api.proxy.Player;
-import com.velocitypowered.api.proxy.server.RegisteredServer;
-import net.elytrium.limboapi.api.player.LimboPlayer;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
 
-
-@SuppressWarnings("unused")
-// TODO: Update to follow new implementation
+/**
+ * Entry point for plugins reading the state of the queue.
+ *
+ * <p>Reads never lock or copy the live queues. Queued counts are live, everything else is read from a snapshot
+ * captured once per queue movement, so results may trail the live queue by one movement.</p>
+ */
 public interface VoidQueue {
-
-    void addPlayer(LimboPlayer limboPlayer);
+    @NotNull Queue getQueue(@NotNull QueueType queueType);
 
     /**
-     * Add a player to a queue.
-     * If the player is already in the queue, but disconnected from the proxy, their current queue position and type will be used
-     * Otherwise the provided queueType will be used, and the player will be added to the back of the queue
-     * @param limboPlayer the player to add
+     * @return the total number of queued players, across all queue types
      */
-    void addPlayer(LimboPlayer limboPlayer, QueueType queueType);
+    int getQueuedCount();
 
-    /**
-     * Removes the player from the queue, and updates connected caches
-     * @param player - The player
-     * @param connected - Whether player has now connected to the queued server, for cache updates
-     */
-    void removePlayer(QueuePlayer player, boolean connected);
+    int getQueuedCount(@NotNull QueueType queueType);
 
-    /**
-     * Removes the player from the queue, and updates connected caches
-     * @param player - The player
-     * @param connected - Whether player has now connected to the queued server, for cache updates
-     */
-    void removePlayer(Player player, boolean connected);
+    int getSlotsUsed(@NotNull QueueType queueType);
 
-    /**
-     * Removes the player from the queue, and updates connected caches
-     * @param limboPlayer - The player
-     * @param connected - Whether player has now connected to the queued server, for cache updates
-     */
-    void removePlayer(LimboPlayer limboPlayer, boolean connected);
+    int getConnectedCount(@NotNull QueueType queueType);
 
     /**
-     * Removes the player from the queue, and updates connected caches
-     * @param uuid - The uuid of the player
-     * @param connected - Whether player has now connected to the queued server, for cache updates
+     * @return up to {@code count} players from the front of a queue, in queue order
      */
-    void removePlayer(UUID uuid, boolean connected);
+    @NotNull List<QueuePlayer> getTopPlayers(@NotNull QueueType queueType, int count);
 
-    void destroy();
+    boolean isPlayerQueued(@NotNull UUID uuid);
 
-    void clear();
+    @NotNull Optional<QueuePlayer> getQueuePlayer(@NotNull UUID uuid);
 
     /**
-     * Returns whether the player is in this queue
-     * @param player - The player
-     * @return Whether the player is queued
+     * Looks up a queued player by username, ignoring case.
      */
-    boolean isPlayerQueued(Player player);
-
-    boolean isPlayerQueued(UUID uuid);
-
-    Optional<QueuePlayer> getQueuePlayer(Player player, boolean strict);
-
-    Optional<QueuePlayer> getQueuePlayer(UUID uuid);
-
-    Optional<QueuePlayer> getQueuePlayer(String username);
+    @NotNull Optional<QueuePlayer> getQueuePlayer(@NotNull String username);
 
     /**
-     * Returns whether the queue is active, and that players trying to join should be added to it
-     * @return added or not
+     * @return the 1-based position of the player in their queue, or empty if they are not queued
      */
-    boolean isActive();
-
-    boolean isServerFull(QueueType queueType);
-
-    int getQueuedLimit();
-
-    void setQueuedLimit(int limit);
+    @NotNull OptionalInt getPositionOf(@NotNull UUID uuid);
 
     int getConnectedPlayerLimit();
 
-    int getPriorityReservedSlots();
-
-    int getStaffReservedSlots();
-
-    int getQueuedCount(QueueType queueType);
-
-    int getConnectedCount();
-
-    int getConnectedCount(QueueType queueType);
-
-    int getSlotsUsed(QueueType queueType);
-
-    QueuePlayer[] getTopPlayers(QueueType queueType, int count);
-
-    List<RegisteredServer> getServers();
-
-    void setDelayLength(int delayLength);
-
-    void setConnectedPlayerLimit(int connectedPlayerLimit);
-
-    void setPriorityReservedSlots(int priorityReservedSlots);
-
-    void setStaffReservedSlots(int staffReservedSlots);
-
-    RegisteredServer getNextServer(QueuePlayer queuePlayer);
+    /**
+     * @return the maximum number of queued players, or empty if there is no limit
+     */
+    @NotNull Optional<Integer> getQueuedPlayerLimit();
 
     /**
      * Pauses the queue, preventing players from being connected to the server even when space exists.
@@ -145,20 +88,20 @@ public interface VoidQueue {
      * @param plugin - The plugin pausing the queue
      * @param reason - The reason for the pause
      */
-    void addPause(Object plugin, String reason);
+    void addPause(@NotNull Object plugin, @NotNull String reason);
 
     /**
      * Removes a pause previously added by addPause.
      * The queue will be unpaused if no pauses remain active.
      * @param plugin - The plugin unpausing the queue
      */
-    void removePause(Object plugin);
+    void removePause(@NotNull Object plugin);
 
     /**
      * Returns whether the given plugin has an active pause
      * @param plugin - The plugin to check
      */
-    boolean hasPause(Object plugin);
+    boolean hasPause(@NotNull Object plugin);
 
     /**
      * Returns whether any pauses exist
@@ -168,5 +111,19 @@ public interface VoidQueue {
     /**
      * Returns all active pauses
      */
-    Map<PluginContainer, String> getPauses();
+    @NotNull Map<PluginContainer, String> getPauses();
+
+    /**
+     * Adds a check players must pass before they are queued. Players who pass every check are not checked again
+     * until their passed checks expire, so a check may not run for a player who reconnects soon after passing.
+     * @param plugin - The plugin adding the check
+     * @param check - The check to add
+     */
+    void addAdmissionCheck(@NotNull Object plugin, @NotNull AdmissionCheck check);
+
+    /**
+     * Removes every check previously added by addAdmissionCheck for the given plugin.
+     * @param plugin - The plugin removing its checks
+     */
+    void removeAdmissionChecks(@NotNull Object plugin);
 }
@@ -26,106 +26,56 @@
 
 package dev.hboyd.voidQueue;
 
-//import com.velocitypowered.api.event.PostOrder;
-//import com.velocitypowered.api.event.Subscribe;
-//import com.velocitypowered.api.proxy.ServerConnection;
-//import com.velocitypowered.api.proxy.server.RegisteredServer;
-//import uk.co.notnull.proxydiscord.api.ProxyDiscord;
-//import uk.co.notnull.proxydiscord.api.VerificationResult;
-//import uk.co.notnull.proxydiscord.api.events.PlayerInfoEvent;
-//import uk.co.notnull.proxydiscord.api.events.PlayerVerifyStateChangeEvent;
-//import uk.co.notnull.proxydiscord.api.info.PlayerInfo;
-//import uk.co.notnull.proxydiscord.api.manager.VerificationManager;
-//import uk.co.notnull.proxyqueues.api.events.PlayerQueueEvent;
-//import uk.co.notnull.proxyqueues.api.queues.VoidQueue;
-//import uk.co.notnull.proxyqueues.api.queues.QueuePlayer;
-//
-//import java.util.Optional;
-//import java.util.UUID;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import dev.hboyd.voidQueue.queues.AdmissionPipeline;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import uk.co.notnull.proxydiscord.api.ProxyDiscord;
+import uk.co.notnull.proxydiscord.api.VerificationResult;
+import uk.co.notnull.proxydiscord.api.events.PlayerVerifyStateChangeEvent;
+import uk.co.notnull.proxydiscord.api.manager.VerificationManager;
 
-// TODO: Adapt/fix/replace discord integration for new queue implementation
-public final class ProxyDiscordHandler {
-//	private final VoidQueuePlugin plugin;
-//	private static VerificationManager verificationManager;
-//
-//	public ProxyDiscordHandler(VoidQueuePlugin plugin) {
-//		this.plugin = plugin;
-//
-//		ProxyDiscord proxyDiscord = (ProxyDiscord) plugin.getProxyServer().getPluginManager()
-//				.getPlugin("proxydiscord").orElseThrow().getInstance().orElseThrow();
-//		verificationManager = proxyDiscord.getVerificationManager();
-//
-//		plugin.getProxyServer().getEventManager().register(plugin, this);
-//	}
-//
-//	@Subscribe
-//	public void onPlayerJoinQueue(PlayerQueueEvent event) {
-//		if(event.isCancelled()) {
-//			return;
-//		}
-//
-//        // TODO: Figure out what isPublicServer is for
-////        if(verificationManager.isPublicServer(event.getServer())) {
-////            return;
-////        }
-//
-//        VerificationResult result = verificationManager.checkVerificationStatus(event.getPlayer());
-//
-//        if(result.isVerified()) {
-//            Optional<ServerConnection> currentServer = event.getPlayer().getCurrentServer();
-//
-//            if(currentServer.isPresent() && verificationManager.isPublicServer(currentServer.get().getServer())) {
-//                plugin.getQueueServer().spawnPlayer(event.getPlayer(),
-//                        new LimboWorldHandler(plugin, (ProxyQueueImpl) event.getProxyQueue()));
-//            }
-//
-//            return;
-//        }
-//
-//		event.setCancelled(true);
-//
-//        RegisteredServer linkingServer = verificationManager.getLinkingServer();
-//		RegisteredServer currentServer = event.getPlayer().getCurrentServer().map(ServerConnection::getServer)
-//				.orElse(null);
-//
-//        if(linkingServer != null && (currentServer == null || !currentServer.equals(linkingServer))) {
-//        	event.getPlayer().createConnectionRequest(linkingServer).fireAndForget();
-//		}
-//
-//		switch (result) {
-//			case NOT_LINKED -> event.setReason(Messages.get("errors.discord-not-linked"));
-//			case LINKED_NOT_VERIFIED -> event.setReason(Messages.get("errors.discord-not-verified"));
-//			default -> event.setReason("An error has occurred.");
-//		}
-//	}
-//
-//	@Subscribe()
-//	public void onPlayerVerifyStateChange(PlayerVerifyStateChangeEvent e) {
-//        if(e.getPreviousState() != VerificationResult.UNKNOWN && !e.getState().isVerified()) {
-//        	plugin.getProxyQueue().getQueuePlayer().clearPlayer(e.getPlayer());
-//		} else if (e.getPreviousState() == VerificationResult.VERIFIED) {}
-//	}
-//
-//
-//	@Subscribe
-//	public void onPlayerInfo(PlayerInfoEvent event) {
-//		UUID uuid = event.getPlayerInfo().getUuid();
-//		Optional<VoidQueue> queue = plugin.getQueueHandler().getCurrentQueue(event.getPlayerInfo().getUuid());
-//
-//		if(queue.isEmpty()) return;
-//
-//		Optional<QueuePlayer> queuePlayer = queue.get().getQueuePlayer(uuid);
-//		if(queuePlayer.isEmpty() || !queuePlayer.get().getPlayer().isActive()) return;
-//
-//		// Set player as queuing if they are in a queue and not already in a queue protected server
-//		queuePlayer.get().getPlayer().getCurrentServer().ifPresent(server -> {
-//			if(plugin.getQueueHandler().getQueue(server.getServer()) == null) {
-//				PlayerInfo.QueueInfo queueInfo = new PlayerInfo.QueueInfo(
-//						queue.get().getServer(),
-//						queuePlayer.get().getQueueType() + " - #" + queuePlayer.get().getPosition());
-//
-//				event.getPlayerInfo().setQueueInfo(queueInfo);
-//			}
-//		});
-//	}
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Requires players to have verified their Discord account through ProxyDiscord before they can join the queue.
+ *
+ * <p>Only loaded when ProxyDiscord is installed, as it references the ProxyDiscord API directly.</p>
+ */
+// TODO: Send unverified players to the ProxyDiscord linking server rather than disconnecting them
+public final class ProxyDiscordHandler implements AdmissionPipeline.Check {
+	private final VerificationManager verificationManager;
+	private final AdmissionPipeline admissionPipeline;
+	private final Executor executor;
+
+	public ProxyDiscordHandler(ProxyServer proxyServer, AdmissionPipeline admissionPipeline, Executor executor) {
+		ProxyDiscord proxyDiscord = (ProxyDiscord) proxyServer.getPluginManager()
+				.getPlugin("proxydiscord").orElseThrow().getInstance().orElseThrow();
+		this.verificationManager = proxyDiscord.getVerificationManager();
+		this.admissionPipeline = admissionPipeline;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<AdmissionPipeline.Result> check(@NotNull Player player) {
+		return CompletableFuture.supplyAsync(() -> {
+			VerificationResult result = verificationManager.checkVerificationStatus(player);
+			if (result.isVerified()) return AdmissionPipeline.Result.allow();
+
+			return switch (result) {
+				case NOT_LINKED -> AdmissionPipeline.Result.deny(Component.translatable("queue.errors.discord-not-linked"));
+				case LINKED_NOT_VERIFIED -> AdmissionPipeline.Result.deny(Component.translatable("queue.errors.discord-not-verified"));
+				default -> AdmissionPipeline.Result.deny(Component.translatable("queue.errors.admission-failed"));
+			};
+		}, executor);
+	}
+
+	// A player who loses verification must be checked again on their next join
+	@Subscribe
+	private void onPlayerVerifyStateChange(PlayerVerifyStateChangeEvent event) {
+		if (!event.getState().isVerified()) admissionPipeline.invalidate(event.getPlayer().getUniqueId());
+	}
 }
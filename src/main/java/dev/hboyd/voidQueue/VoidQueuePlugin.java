@@ -26,25 +26,28 @@ package dev.hboyd.voidQueue;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
 import com.velocitypowered.api.event.proxy.ProxyReloadEvent;
-import com.velocitypowered.api.plugin.PluginContainer;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
 import dev.jorel.commandapi.CommandAPI;
 import dev.jorel.commandapi.CommandAPIVelocityConfig;
-import net.elytrium.limboapi.api.chunk.Dimension;
-import net.elytrium.limboapi.api.chunk.VirtualWorld;
-import net.elytrium.limboapi.api.player.GameMode;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.minimessage.translation.MiniMessageTranslationStore;
 import net.kyori.adventure.translation.GlobalTranslator;
 import net.kyori.adventure.util.UTF8ResourceBundleControl;
+import dev.hboyd.voidQueue.admin.AdminApiServer;
+import dev.hboyd.voidQueue.admin.QueueFeed;
 import dev.hboyd.voidQueue.command.VoidQueueCommand;
 import dev.hboyd.voidQueue.configuration.ConfigService;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.metrics.Metrics;
+import dev.hboyd.voidQueue.metrics.MetricsRegistry;
+import dev.hboyd.voidQueue.metrics.OpenMetricsExporter;
 import org.slf4j.Logger;
+import dev.hboyd.voidQueue.queues.LimboProvider;
 import dev.hboyd.voidQueue.queues.VoidQueue;
+import dev.hboyd.voidQueue.queues.VoidQueueView;
 import uk.co.notnull.vanishbridge.helper.VanishBridgeHelper;
-import net.elytrium.limboapi.api.Limbo;
-import net.elytrium.limboapi.api.LimboFactory;
 
 import com.google.inject.Inject;
 
@@ -55,13 +58,16 @@ import java.util.Locale;
 import java.util.ResourceBundle;
 
 // TODO: Support for multiple queues. Queue should provide a router which the plugin uses to send players to each queue.
-public final class VoidQueuePlugin {
+public final class VoidQueuePlugin implements dev.hboyd.voidQueue.api.VoidQueue {
 
     private static VoidQueuePlugin INSTANCE;
     private VoidQueue voidQueue;
     private final ConfigService configService;
     //private final VoidQueueTranslationService proxyQueueTranslationService;
-    private Limbo queueServer;
+    private LimboProvider limboProvider;
+    private MetricsRegistry metricsRegistry;
+    private OpenMetricsExporter metricsExporter;
+    private AdminApiServer adminApiServer;
 
     private final ProxyServer proxyServer;
     private final Logger logger;
@@ -130,6 +136,9 @@ public final class VoidQueuePlugin {
     public void onProxyInitialization(ProxyInitializeEvent event) {
         initLimbo();
         buildQueue();
+        initProxyDiscord();
+        initMetrics();
+        initAdminApi();
 
         VoidQueueCommand.register(this);
         CommandAPI.onEnable();
@@ -139,24 +148,90 @@ public final class VoidQueuePlugin {
 
 
     private void initLimbo() {
-        LimboFactory limboFactory = (LimboFactory) this.proxyServer.getPluginManager()
-                .getPlugin("limboapi")
-                .flatMap(PluginContainer::getInstance)
-                .orElseThrow();
+        this.limboProvider = new LimboProvider(logger, proxyServer, configService.getVoidQueueConfig().limbo);
+        proxyServer.getEventManager().register(this, limboProvider);
+    }
+
+    private void initProxyDiscord() {
+        if (!configService.getVoidQueueConfig().admission.proxyDiscord) return;
+        if (proxyServer.getPluginManager().getPlugin("proxydiscord").isEmpty()) return;
+
+        ProxyDiscordHandler proxyDiscordHandler = new ProxyDiscordHandler(proxyServer,
+                voidQueue.getAdmissionPipeline(),
+                proxyServer.getPluginManager().ensurePluginContainer(this).getExecutorService());
+        voidQueue.getAdmissionPipeline().addCheck(proxyDiscordHandler);
+        proxyServer.getEventManager().register(this, proxyDiscordHandler);
+        logger.info("Requiring ProxyDiscord verification before queueing");
+    }
+
+    // Every metric reads counters maintained by the queue, so scrapes never walk the queues or tracked players
+    private void initMetrics() {
+        this.metricsRegistry = new MetricsRegistry(voidQueue);
+
+        if (proxyServer.getPluginManager().getPlugin("prometheus-exporter").isPresent()) {
+            new Metrics(this, metricsRegistry);
+        }
+
+        VoidQueueConfig.MetricsExporter exporterConfig = configService.getVoidQueueConfig().metricsExporter;
+        if (!exporterConfig.enabled) return;
 
-        VirtualWorld queueWorld = limboFactory.createVirtualWorld(Dimension.OVERWORLD, 0, 100, 0, (float) 90, (float) 0.0);
-        this.queueServer = limboFactory.createLimbo(queueWorld)
-                .setName("Queue")
-                .setWorldTime(18000)
-                .setGameMode(GameMode.SPECTATOR)
-                .setViewDistance(2)
-                .setSimulationDistance(2);
+        try {
+            this.metricsExporter = new OpenMetricsExporter(logger, metricsRegistry, exporterConfig);
+            metricsExporter.start();
+        } catch (IOException e) {
+            logger.error("Failed to start the metrics exporter on {}:{}", exporterConfig.bindAddress, exporterConfig.port, e);
+        }
+    }
+
+    private void initAdminApi() {
+        VoidQueueConfig voidQueueConfig = configService.getVoidQueueConfig();
+        VoidQueueConfig.AdminApi adminApiConfig = voidQueueConfig.adminApi;
+        if (!adminApiConfig.enabled) return;
+
+        QueueFeed queueFeed = new QueueFeed(voidQueue, adminApiConfig.maxSubscribers, adminApiConfig.subscriberBuffer);
+        proxyServer.getEventManager().register(this, queueFeed);
+        proxyServer.getScheduler().buildTask(this, queueFeed::tick).repeat(voidQueueConfig.movementDelay).schedule();
+
+        try {
+            this.adminApiServer = new AdminApiServer(logger, voidQueue, queueFeed, adminApiConfig);
+            adminApiServer.start();
+        } catch (IOException e) {
+            logger.error("Failed to start the admin API on {}:{}", adminApiConfig.bindAddress, adminApiConfig.port, e);
+        }
+    }
+
+    @Subscribe
+    private void onProxyShutdown(ProxyShutdownEvent event) {
+        if (metricsExporter != null) metricsExporter.stop();
+        if (adminApiServer != null) adminApiServer.stop();
+        if (voidQueue != null) voidQueue.shutdown();
+    }
+
+    public ConfigService getConfigService() {
+        return this.configService;
+    }
+
+    public Path getDataDirectory() {
+        return this.dataDirPath;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return this.metricsRegistry;
+    }
+
+    public LimboProvider getLimboProvider() {
+        return this.limboProvider;
     }
 
     public VoidQueue getVoidQueue() {
         return this.voidQueue;
     }
 
+    @Override
+    public VoidQueueView getQueue() {
+        return this.voidQueue.getView();
+    }
+
     private void buildQueue() {
         getLogger().info("Creating the queue");
 
@@ -165,6 +240,7 @@ public final class VoidQueuePlugin {
                 this,
                 proxyServer,
                 proxyServer.getAllServers(),
+                limboProvider,
                 configService.getVoidQueueConfig());
     }
 
@@ -0,0 +1,215 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.admin;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.queues.QueueSnapshot;
+import dev.hboyd.voidQueue.queues.VoidQueue;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local HTTP endpoint for dashboards and tooling.
+ *
+ * <ul>
+ *     <li>{@code GET /queue} returns a JSON snapshot of every queue, optionally limited with {@code ?limit=}</li>
+ *     <li>{@code GET /events} streams the {@link QueueFeed} as Server-Sent Events</li>
+ * </ul>
+ */
+public class AdminApiServer {
+    private static final byte[] KEEPALIVE = ": keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final long KEEPALIVE_SECONDS = 15;
+
+    private final Logger logger;
+    private final VoidQueue voidQueue;
+    private final QueueFeed queueFeed;
+    private final VoidQueueConfig.AdminApi config;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public AdminApiServer(Logger logger,
+                          VoidQueue voidQueue,
+                          QueueFeed queueFeed,
+                          VoidQueueConfig.AdminApi config) throws IOException {
+        this.logger = logger;
+        this.voidQueue = voidQueue;
+        this.queueFeed = queueFeed;
+        this.config = config;
+
+        this.server = HttpServer.create(new InetSocketAddress(config.bindAddress, config.port), 0);
+        this.server.createContext("/queue", exchange -> handle(exchange, this::handleSnapshot));
+        this.server.createContext("/events", exchange -> handle(exchange, this::handleEvents));
+
+        // Each subscriber holds a thread for as long as it is connected, plus a spare for snapshot requests
+        this.executor = Executors.newFixedThreadPool(config.maxSubscribers + 1, runnable -> {
+            Thread thread = new Thread(runnable, "VoidQueue Admin API");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Serving the admin API on {}", server.getAddress());
+    }
+
+    public void stop() {
+        queueFeed.closeAll();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!isAuthorized(exchange)) {
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+
+            handler.handle(exchange);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to handle admin API request for {}", exchange.getRequestURI(), e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        if (config.token.isEmpty()) return true;
+
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null) return false;
+        // Compared in constant time so the token cannot be guessed from response timings
+        return MessageDigest.isEqual(("Bearer " + config.token).getBytes(StandardCharsets.UTF_8),
+                authorization.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handleSnapshot(HttpExchange exchange) throws IOException {
+        int limit = parseLimit(exchange.getRequestURI().getRawQuery()).orElse(config.snapshotPlayerLimit);
+        QueueSnapshot snapshot = voidQueue.getSnapshot();
+
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject();
+            json.name("paused").value(voidQueue.isPaused());
+            QueueFeed.writePauses(json, voidQueue.getPauses());
+            json.name("queued").value(snapshot.getQueuedCount());
+
+            json.name("queues").beginObject();
+            for (QueueType queueType : QueueType.values()) {
+                QueueSnapshot.Slots slots = snapshot.getSlots(queueType);
+                List<QueueSnapshot.Entry> queue = snapshot.getQueue(queueType);
+
+                json.name(queueType.name().toLowerCase(Locale.ROOT)).beginObject()
+                        .name("queued").value(queue.size())
+                        .name("slotsUsed").value(slots.used())
+                        .name("reservedSlots").value(slots.reserved())
+                        .name("connected").value(slots.connected());
+
+                json.name("players").beginArray();
+                for (QueueSnapshot.Entry entry : queue.subList(0, Math.min(limit, queue.size()))) {
+                    QueueFeed.writePlayer(json, entry);
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endObject();
+            json.endObject();
+        }
+
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        Optional<QueueFeed.Subscriber> optionalSubscriber = queueFeed.subscribe();
+        if (optionalSubscriber.isEmpty()) {
+            exchange.sendResponseHeaders(503, -1);
+            return;
+        }
+        QueueFeed.Subscriber subscriber = optionalSubscriber.get();
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream out = exchange.getResponseBody();
+        try {
+            while (!subscriber.isClosed()) {
+                byte[] frame = subscriber.poll(KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+                out.write(frame != null ? frame : KEEPALIVE);
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.debug("Admin API subscriber disconnected", e);
+        } finally {
+            subscriber.close();
+        }
+    }
+
+    private static Optional<Integer> parseLimit(String query) {
+        if (query == null) return Optional.empty();
+
+        for (String parameter : query.split("&")) {
+            if (!parameter.startsWith("limit=")) continue;
+            try {
+                return Optional.of(Math.max(0, Integer.parseInt(parameter.substring("limit=".length()))));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+}
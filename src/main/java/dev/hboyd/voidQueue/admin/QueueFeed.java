@@ -0,0 +1,245 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.admin;
+
+import com.google.gson.stream.JsonWriter;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.plugin.PluginContainer;
+import dev.hboyd.voidQueue.api.events.QueueAdvancedEvent;
+import dev.hboyd.voidQueue.api.queues.QueuePlayer;
+import dev.hboyd.voidQueue.queues.VoidQueue;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces queue changes into at most one Server-Sent Events frame per tick and fans it out to subscribers.
+ *
+ * <p>Each frame is serialized once and shared by every subscriber. Subscribers buffer a fixed number of frames,
+ * a subscriber that falls further behind has its backlog dropped and is told to resync from a fresh snapshot, so a
+ * slow consumer never holds up the queue.</p>
+ */
+public class QueueFeed {
+    private static final byte[] RESYNC = "event: resync\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+
+    public final class Subscriber {
+        private final ArrayBlockingQueue<byte[]> frames;
+        private volatile boolean closed;
+
+        private Subscriber(int bufferSize) {
+            this.frames = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * @return the next frame, or null if none arrived within the timeout
+         */
+        public byte @Nullable [] poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return frames.poll(timeout, unit);
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void offer(byte[] frame) {
+            if (frames.offer(frame)) return;
+
+            // Too far behind to catch up frame by frame
+            frames.clear();
+            frames.offer(RESYNC);
+        }
+    }
+
+    private final VoidQueue voidQueue;
+    private final int maxSubscribers;
+    private final int subscriberBuffer;
+
+    private final Set<Subscriber> subscribers;
+    private final ConcurrentLinkedQueue<QueueAdvancedEvent> pending;
+    private Map<PluginContainer, String> lastPauses;
+    private long sequence;
+
+    public QueueFeed(VoidQueue voidQueue, int maxSubscribers, int subscriberBuffer) {
+        this.voidQueue = voidQueue;
+        this.maxSubscribers = maxSubscribers;
+        this.subscriberBuffer = subscriberBuffer;
+
+        this.subscribers = ConcurrentHashMap.newKeySet();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.lastPauses = Map.of();
+    }
+
+    /**
+     * @return the new subscriber, or empty if there are already too many
+     */
+    public synchronized Optional<Subscriber> subscribe() {
+        if (subscribers.size() >= maxSubscribers) return Optional.empty();
+
+        Subscriber subscriber = new Subscriber(subscriberBuffer);
+        subscribers.add(subscriber);
+        return Optional.of(subscriber);
+    }
+
+    public void closeAll() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    @Subscribe
+    private void onQueueAdvanced(QueueAdvancedEvent event) {
+        if (!subscribers.isEmpty()) pending.add(event);
+    }
+
+    /**
+     * Sends every change since the last tick to the subscribers as a single frame.
+     */
+    public synchronized void tick() {
+        if (subscribers.isEmpty()) {
+            // Subscribers start from a fresh snapshot, so nothing from before they joined is needed
+            pending.clear();
+            return;
+        }
+
+        List<QueueAdvancedEvent> events = new ArrayList<>();
+        QueueAdvancedEvent event;
+        while ((event = pending.poll()) != null) events.add(event);
+
+        // Only copied when they change, which is rare next to queue movement
+        Map<PluginContainer, String> pauses = voidQueue.getPauses();
+        boolean pausesChanged = !pauses.equals(lastPauses);
+        if (pausesChanged) lastPauses = new HashMap<>(pauses);
+
+        if (events.isEmpty() && !pausesChanged) return;
+
+        byte[] frame = toFrame(++sequence, events, pausesChanged ? lastPauses : null);
+        for (Subscriber subscriber : subscribers) subscriber.offer(frame);
+    }
+
+    private static byte[] toFrame(long sequence, List<QueueAdvancedEvent> events, @Nullable Map<PluginContainer, String> pauses) {
+        StringWriter data = new StringWriter();
+        try (JsonWriter json = new JsonWriter(data)) {
+            json.beginObject();
+            writePlayers(json, "enqueued", events, QueueAdvancedEvent::getEnqueued);
+            writePlayers(json, "admitted", events, QueueAdvancedEvent::getAdmitted);
+            writePlayers(json, "removed", events, QueueAdvancedEvent::getRemoved);
+            writeShifts(json, events);
+            if (pauses != null) writePauses(json, pauses);
+            json.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return ("id: " + sequence + "\nevent: change\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writePlayers(JsonWriter json,
+                                     String name,
+                                     List<QueueAdvancedEvent> events,
+                                     Function<QueueAdvancedEvent, List<QueuePlayer>> players) throws IOException {
+        json.name(name).beginArray();
+        for (QueueAdvancedEvent event : events) {
+            for (QueuePlayer queuePlayer : players.apply(event)) writePlayer(json, queuePlayer);
+        }
+        json.endArray();
+    }
+
+    static void writePlayer(JsonWriter json, QueuePlayer queuePlayer) throws IOException {
+        json.beginObject()
+                .name("uuid").value(queuePlayer.getUniqueId().toString())
+                .name("username").value(queuePlayer.getUsername())
+                .name("queueType").value(queuePlayer.getQueueType().name().toLowerCase(Locale.ROOT))
+                .name("position").value(queuePlayer.getPosition())
+                .name("online").value(queuePlayer.isOnline())
+                .endObject();
+    }
+
+    /*
+     * Position changes are sent as runs of consecutive positions that moved by the same amount. When the front of a
+     * queue is admitted every player behind moves up, which is then a single run rather than an entry per player.
+     */
+    private static void writeShifts(JsonWriter json, List<QueueAdvancedEvent> events) throws IOException {
+        json.name("shifts").beginArray();
+        for (QueueAdvancedEvent event : events) {
+            QueueAdvancedEvent.PositionChange runStart = null;
+            QueueAdvancedEvent.PositionChange runEnd = null;
+
+            for (QueueAdvancedEvent.PositionChange change : event.getPositionChanges()) {
+                if (runEnd != null
+                        && change.player().getQueueType() == runEnd.player().getQueueType()
+                        && change.getDelta() == runEnd.getDelta()
+                        && change.player().getPosition() == runEnd.player().getPosition() + 1) {
+                    runEnd = change;
+                    continue;
+                }
+
+                if (runStart != null) writeShift(json, runStart, runEnd);
+                runStart = change;
+                runEnd = change;
+            }
+            if (runStart != null) writeShift(json, runStart, runEnd);
+        }
+        json.endArray();
+    }
+
+    private static void writeShift(JsonWriter json,
+                                   QueueAdvancedEvent.PositionChange start,
+                                   QueueAdvancedEvent.PositionChange end) throws IOException {
+        json.beginObject()
+                .name("queueType").value(start.player().getQueueType().name().toLowerCase(Locale.ROOT))
+                .name("from").value(start.player().getPosition())
+                .name("to").value(end.player().getPosition())
+                .name("delta").value(start.getDelta())
+                .endObject();
+    }
+
+    static void writePauses(JsonWriter json, Map<PluginContainer, String> pauses) throws IOException {
+        json.name("pauses").beginArray();
+        for (Map.Entry<PluginContainer, String> pause : pauses.entrySet()) {
+            json.beginObject()
+                    .name("plugin").value(pause.getKey().getDescription().getId())
+                    .name("reason").value(pause.getValue())
+                    .endObject();
+        }
+        json.endArray();
+    }
+}
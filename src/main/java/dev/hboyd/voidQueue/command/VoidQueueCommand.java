@@ -27,50 +27,53 @@ import com.mojang.brigadier.Command;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.VelocityBrigadierMessage;
 import dev.hboyd.voidQueue.VoidQueuePlugin;
+import dev.hboyd.voidQueue.debug.FlightRecorder;
 import dev.hboyd.voidQueue.queues.VoidQueue;
 import dev.jorel.commandapi.CommandAPI;
 import dev.jorel.commandapi.CommandAPICommand;
 import dev.jorel.commandapi.arguments.BooleanArgument;
 import dev.jorel.commandapi.arguments.GreedyStringArgument;
+import dev.jorel.commandapi.arguments.IntegerArgument;
+import dev.jorel.commandapi.arguments.MultiLiteralArgument;
 import dev.jorel.commandapi.exceptions.WrapperCommandSyntaxException;
 import dev.jorel.commandapi.executors.CommandArguments;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.minimessage.translation.Argument;
 import dev.hboyd.voidQueue.api.queues.QueueType;
 import dev.hboyd.voidQueue.command.argument.TrackedPlayerArgument;
-import dev.hboyd.voidQueue.queues.QueueRouterService;
-import dev.hboyd.voidQueue.queues.QueueStore;
+import dev.hboyd.voidQueue.queues.PlayerTracker;
+import dev.hboyd.voidQueue.queues.QueueSnapshot;
 import dev.hboyd.voidQueue.queues.TrackedPlayer;
 import dev.hboyd.voidQueue.utils.Constants;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 // TODO: Add support for multiple queues
 public class VoidQueueCommand {
-    // TODO: Clean this up....
-    private static final Supplier<Collection<TrackedPlayer>> queuedPlayerProvider = () ->
-            VoidQueuePlugin.getInstance().getVoidQueue()
-                    .getPlayerTracker()
-                    .getTrackedPlayers()
-                    .stream()
-                    .filter(trackedPlayer -> VoidQueuePlugin.getInstance().getVoidQueue().getQueueStore().isQueued(trackedPlayer)).toList();
-
-    private static final Supplier<Collection<TrackedPlayer>> onlineQueuedPlayerProvider = () ->
-            VoidQueuePlugin.getInstance().getVoidQueue()
-                    .getPlayerTracker()
-                    .getTrackedPlayers()
-                    .stream()
-                    .filter(trackedPlayer -> VoidQueuePlugin.getInstance().getVoidQueue().getQueueStore().isQueued(trackedPlayer)
-                            && trackedPlayer.getPlayer().isActive()
-                            && trackedPlayer.getConnectionState().isPresent()
-                            && trackedPlayer.getConnectionState().get() == TrackedPlayer.ConnectionState.LIMBO_JOIN)
-                    .toList();
+    private static final int LIST_PAGE_SIZE = 10;
+
+    private static final Supplier<PlayerTracker> playerTrackerProvider = () ->
+            VoidQueuePlugin.getInstance().getVoidQueue().getPlayerTracker();
+
+    private static final Predicate<TrackedPlayer> isQueued = trackedPlayer ->
+            VoidQueuePlugin.getInstance().getVoidQueue().getQueueStore().isQueued(trackedPlayer);
+
+    private static final Predicate<TrackedPlayer> isOnlineQueued = trackedPlayer ->
+            isQueued.test(trackedPlayer)
+                    && trackedPlayer.getPlayer().isActive()
+                    && trackedPlayer.getConnectionState().isPresent()
+                    && trackedPlayer.getConnectionState().get() == TrackedPlayer.ConnectionState.LIMBO_JOIN;
 
     public static void register(Object plugin) {
+        int suggestionLimit = VoidQueuePlugin.getInstance().getConfigService().getVoidQueueConfig().commandSuggestionLimit;
+
         CommandAPICommand pauseCommand = new CommandAPICommand("pause")
                 .withPermission(Constants.BASE_PERM + "pause")
                 .withOptionalArguments(new GreedyStringArgument("reason"))
@@ -84,7 +87,7 @@ public class VoidQueueCommand {
 
         CommandAPICommand kickCommand = new CommandAPICommand("kick")
                 .withPermission(Constants.BASE_PERM + "kick")
-                .withOptionalArguments(new TrackedPlayerArgument("player", queuedPlayerProvider))
+                .withOptionalArguments(new TrackedPlayerArgument("player", playerTrackerProvider, isQueued, suggestionLimit))
                 .executes(VoidQueueCommand::kickFromQueue);
 
         CommandAPICommand clearCommand = new CommandAPICommand("clear")
@@ -93,7 +96,7 @@ public class VoidQueueCommand {
 
         CommandAPICommand pullCommand = new CommandAPICommand("pull")
                 .withPermission(Constants.BASE_PERM + "pull")
-                .withOptionalArguments(new TrackedPlayerArgument("player", onlineQueuedPlayerProvider))
+                .withOptionalArguments(new TrackedPlayerArgument("player", playerTrackerProvider, isOnlineQueued, suggestionLimit))
                 .executes(VoidQueueCommand::pullPastQueue);
 
         CommandAPICommand flushCommand = new CommandAPICommand("flush")
@@ -105,6 +108,29 @@ public class VoidQueueCommand {
                 .withPermission(Constants.BASE_PERM + "status")
                 .executes(VoidQueueCommand::status);
 
+        CommandAPICommand positionCommand = new CommandAPICommand("position")
+                .withPermission(Constants.BASE_PERM + "position")
+                .withOptionalArguments(new TrackedPlayerArgument("player", playerTrackerProvider, isQueued, suggestionLimit))
+                .executes(VoidQueueCommand::position);
+
+        CommandAPICommand listCommand = new CommandAPICommand("list")
+                .withPermission(Constants.BASE_PERM + "list")
+                .withArguments(new MultiLiteralArgument("type", Arrays.stream(QueueType.values())
+                        .map(queueType -> queueType.name().toLowerCase(Locale.ROOT))
+                        .toArray(String[]::new)))
+                .withOptionalArguments(new IntegerArgument("page", 1))
+                .executes(VoidQueueCommand::list);
+
+        CommandAPICommand topCommand = new CommandAPICommand("top")
+                .withPermission(Constants.BASE_PERM + "list")
+                .withOptionalArguments(new IntegerArgument("count", 1, 100))
+                .executes(VoidQueueCommand::top);
+
+        CommandAPICommand debugCommand = new CommandAPICommand("debug")
+                .withPermission(Constants.BASE_PERM + "debug")
+                .withSubcommand(new CommandAPICommand("dump")
+                        .executes(VoidQueueCommand::debugDump));
+
         CommandAPICommand queueCommand = new CommandAPICommand("q")
                 .withSubcommand(pauseCommand)
                 .withSubcommand(unpauseCommand)
@@ -112,7 +138,11 @@ public class VoidQueueCommand {
                 .withSubcommand(clearCommand)
                 .withSubcommand(pullCommand)
                 .withSubcommand(flushCommand)
-                .withSubcommand(statusCommand);
+                .withSubcommand(statusCommand)
+                .withSubcommand(positionCommand)
+                .withSubcommand(listCommand)
+                .withSubcommand(topCommand)
+                .withSubcommand(debugCommand);
 
         queueCommand.register(plugin);
     }
@@ -149,16 +179,13 @@ public class VoidQueueCommand {
     private static int clearQueue(CommandSource source, CommandArguments args) {
         VoidQueue voidQueue = VoidQueuePlugin.getInstance().getVoidQueue();
 
-        voidQueue.getPlayerTracker().getTrackedPlayers().stream()
-                .filter(trackedPlayer -> voidQueue.getQueueStore().isQueued(trackedPlayer))
-                .forEach(trackedPlayer -> {
-                    if (trackedPlayer.getPlayer().isActive())
-                        voidQueue.getQueueRouterService().kick(trackedPlayer,
-                                Component.translatable("queue.errors.queue-cleared"));
+        for (TrackedPlayer trackedPlayer : voidQueue.getQueueStore().drain()) {
+            if (trackedPlayer.getPlayer().isActive())
+                voidQueue.getQueueRouterService().kick(trackedPlayer,
+                        Component.translatable("queue.errors.queue-cleared"));
 
-                    voidQueue.getQueueStore().removePlayer(trackedPlayer);
-                    voidQueue.getPlayerTracker().unTrackPlayer(trackedPlayer);
-                });
+            voidQueue.getPlayerTracker().unTrackPlayer(trackedPlayer);
+        }
 
         source.sendMessage(Component.translatable("queue.commands.info.clear.success"));
         return Command.SINGLE_SUCCESS;
@@ -190,7 +217,8 @@ public class VoidQueueCommand {
 
         VoidQueue voidQueue = VoidQueuePlugin.getInstance().getVoidQueue();
 
-        voidQueue.getQueueRouterService().routeToServer(trackedPlayer.get());
+        if (!voidQueue.getQueueRouterService().routeToServer(trackedPlayer.get()))
+            throw CommandAPI.failWithMessage(VelocityBrigadierMessage.tooltip(Component.translatable("queue.commands.error.no-server")));
         voidQueue.getQueueStore().removePlayer(trackedPlayer.get());
 
         source.sendMessage(Component.translatable("queue.commands.info.pull.success",
@@ -202,51 +230,107 @@ public class VoidQueueCommand {
         boolean force = args.getByClassOrDefault("force", Boolean.class, false);
 
         VoidQueue voidQueue = VoidQueuePlugin.getInstance().getVoidQueue();
-        QueueRouterService queueRouterService = voidQueue.getQueueRouterService();
-        QueueStore queueStore = voidQueue.getQueueStore();
+        voidQueue.flush(force);
 
+        source.sendMessage(Component.translatable("queue.commands.info.flush.success"));
+        return Command.SINGLE_SUCCESS;
+    }
 
-        for (QueueType queueType : QueueType.values()) {
-            Optional<TrackedPlayer> trackedPlayer = queueStore.nextIdleActive(queueType);
-            while (trackedPlayer.isPresent() && (!voidQueue.isServerFull(queueType) || force)) {
-                queueRouterService.routeToServer(trackedPlayer.get());
-                queueStore.removePlayer(trackedPlayer.get());
-                trackedPlayer = queueStore.nextIdleActive(queueType);
-            }
+    private static int status(CommandSource source, CommandArguments args) {
+        source.sendMessage(VoidQueuePlugin.getInstance().getVoidQueue().getStatus());
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int position(CommandSource source, CommandArguments args) throws WrapperCommandSyntaxException {
+        Optional<TrackedPlayer> trackedPlayer = args.getOptionalByClass("player", TrackedPlayer.class);
+        if (trackedPlayer.isEmpty()) {
+            throw CommandAPI.failWithMessage(VelocityBrigadierMessage.tooltip(Component.translatable("queue.commands.usage.position")));
         }
 
-        source.sendMessage(Component.translatable("queue.commands.info.flush.success"));
+        QueueSnapshot snapshot = VoidQueuePlugin.getInstance().getVoidQueue().getSnapshot();
+        String username = trackedPlayer.get().getPlayer().getUsername();
+        Optional<QueueSnapshot.Entry> entry = snapshot.getEntry(trackedPlayer.get().getPlayer().getUniqueId());
+        if (entry.isEmpty())
+            throw CommandAPI.failWithMessage(VelocityBrigadierMessage.tooltip(Component.translatable("queue.errors.target-no-queue",
+                    Argument.string("player", username))));
+
+        source.sendMessage(Component.translatable("queue.commands.info.position",
+                Argument.string("player", username),
+                Argument.string("position", String.valueOf(entry.get().position())),
+                Argument.string("size", String.valueOf(snapshot.getQueuedCount(entry.get().queueType()))),
+                Argument.string("type", entry.get().queueType().getNameTitleCase())));
         return Command.SINGLE_SUCCESS;
     }
 
-    private static int status(CommandSource source, CommandArguments args) {
-        VoidQueue voidQueue = VoidQueuePlugin.getInstance().getVoidQueue();
+    private static int list(CommandSource source, CommandArguments args) {
+        QueueType queueType = QueueType.valueOf(((String) args.get("type")).toUpperCase(Locale.ROOT));
+        int page = args.getByClassOrDefault("page", Integer.class, 1);
+
+        List<QueueSnapshot.Entry> queue = VoidQueuePlugin.getInstance().getVoidQueue().getSnapshot().getQueue(queueType);
+        if (queue.isEmpty()) {
+            source.sendMessage(Component.translatable("queue.commands.info.list.empty",
+                    Argument.string("type", queueType.getNameTitleCase())));
+            return Command.SINGLE_SUCCESS;
+        }
 
-        String baseStatusMessage = """
-                <aqua>Queue Status:
-                    <aqua>Server: <yellow><in_game> / <max_connected>
-                    <aqua>Queued: <yellow><queued> / <max_queued>
-                        <aqua>Queued offline: <yellow><queued_offline>
-                    <aqua>Pause count: <pause_count>""".stripIndent();
+        int pages = (queue.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE;
+        page = Math.min(page, pages);
+        int from = (page - 1) * LIST_PAGE_SIZE;
 
+        Component message = Component.translatable("queue.commands.info.list.header",
+                Argument.string("type", queueType.getNameTitleCase()),
+                Argument.string("page", String.valueOf(page)),
+                Argument.string("pages", String.valueOf(pages)),
+                Argument.string("size", String.valueOf(queue.size())));
+        source.sendMessage(appendEntries(message, queue.subList(from, Math.min(from + LIST_PAGE_SIZE, queue.size()))));
+        return Command.SINGLE_SUCCESS;
+    }
 
-        Component status = MiniMessage.miniMessage().deserialize(baseStatusMessage,
-                Placeholder.unparsed("in_game", String.valueOf(VoidQueuePlugin.getProxyServer().getAllPlayers().size())),
-                Placeholder.unparsed("max_connected", String.valueOf(voidQueue.getConnectedPlayerLimit())),
-                Placeholder.unparsed("pause_count", String.valueOf(voidQueue.getPauses().size())),
-                Placeholder.unparsed("queued", String.valueOf(voidQueue.getQueueStore().getQueuedCount())),
-                Placeholder.unparsed("max_queued", String.valueOf(voidQueue.getQueuedPlayerLimit().orElse(-1))),
-                Placeholder.unparsed("queued_offline", String.valueOf(voidQueue.getQueueStore().getQueuedInActiveCount())));
+    private static int top(CommandSource source, CommandArguments args) {
+        int count = args.getByClassOrDefault("count", Integer.class, 10);
+        QueueSnapshot snapshot = VoidQueuePlugin.getInstance().getVoidQueue().getSnapshot();
 
+        Component message = Component.empty();
         for (QueueType queueType : QueueType.values()) {
-            status = status
-                    .appendNewline()
-                    .append(Component.text(queueType.getNameTitleCase() + ":"))
-                    .appendNewline()
-                    .append(voidQueue.getStatusMessage(queueType));
+            List<QueueSnapshot.Entry> queue = snapshot.getQueue(queueType);
+            if (queueType.ordinal() > 0) message = message.appendNewline();
+
+            message = message.append(Component.translatable("queue.commands.info.top.header",
+                    Argument.string("type", queueType.getNameTitleCase()),
+                    Argument.string("size", String.valueOf(queue.size()))));
+            message = appendEntries(message, queue.subList(0, Math.min(count, queue.size())));
+        }
+
+        source.sendMessage(message);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int debugDump(CommandSource source, CommandArguments args) throws WrapperCommandSyntaxException {
+        VoidQueuePlugin voidQueuePlugin = VoidQueuePlugin.getInstance();
+        FlightRecorder flightRecorder = voidQueuePlugin.getVoidQueue().getFlightRecorder();
+        if (!flightRecorder.isEnabled())
+            throw CommandAPI.failWithMessage(VelocityBrigadierMessage.tooltip(Component.translatable("queue.commands.error.debug.recorder-disabled")));
+
+        Path file;
+        try {
+            file = flightRecorder.dump(voidQueuePlugin.getDataDirectory());
+        } catch (IOException e) {
+            voidQueuePlugin.getLogger().error("Failed to write the flight recorder dump", e);
+            throw CommandAPI.failWithMessage(VelocityBrigadierMessage.tooltip(Component.translatable("queue.commands.error.debug.dump-failed")));
         }
 
-        source.sendMessage(status);
+        source.sendMessage(Component.translatable("queue.commands.info.debug.dump.success",
+                Argument.string("file", file.getFileName().toString())));
         return Command.SINGLE_SUCCESS;
     }
+
+    private static Component appendEntries(Component message, List<QueueSnapshot.Entry> entries) {
+        for (QueueSnapshot.Entry entry : entries) {
+            message = message.appendNewline().append(Component.translatable(
+                    entry.online() ? "queue.commands.info.list.entry" : "queue.commands.info.list.entry-offline",
+                    Argument.string("position", String.valueOf(entry.position())),
+                    Argument.string("player", entry.username())));
+        }
+        return message;
+    }
 }
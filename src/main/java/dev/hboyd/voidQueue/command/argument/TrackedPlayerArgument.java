@@ -35,21 +35,37 @@ import dev.jorel.commandapi.arguments.SafeOverrideableArgument;
 import dev.jorel.commandapi.executors.CommandArguments;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.translation.Argument;
+import dev.hboyd.voidQueue.queues.PlayerTracker;
 import dev.hboyd.voidQueue.queues.TrackedPlayer;
 
-import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+/**
+ * Argument for a tracked player, looked up by username through the {@link PlayerTracker} username index.
+ */
 public class TrackedPlayerArgument extends SafeOverrideableArgument<TrackedPlayer, String> implements GreedyArgument {
-    private final Supplier<Collection<TrackedPlayer>> trackedPlayerSupplier;
+    private final Supplier<PlayerTracker> playerTrackerSupplier;
+    private final Predicate<TrackedPlayer> filter;
+    private final int suggestionLimit;
     public static final DynamicCommandExceptionType ERROR_UNKNOWN_PLAYER = new DynamicCommandExceptionType(username ->
             VelocityBrigadierMessage.tooltip(Component.translatable("queue.commands.player-argument.error.target-unknown",
                     Argument.string("player", (String) username))));
 
 
-    public TrackedPlayerArgument(String nodeName, Supplier<Collection<TrackedPlayer>> trackedPlayerSupplier) {
+    /**
+     * @param filter          the tracked players which may be given as the argument
+     * @param suggestionLimit the maximum number of usernames suggested
+     */
+    public TrackedPlayerArgument(String nodeName,
+                                 Supplier<PlayerTracker> playerTrackerSupplier,
+                                 Predicate<TrackedPlayer> filter,
+                                 int suggestionLimit) {
         super(nodeName, StringArgumentType.greedyString(), s -> s);
-        this.trackedPlayerSupplier = trackedPlayerSupplier;
+        this.playerTrackerSupplier = playerTrackerSupplier;
+        this.filter = filter;
+        this.suggestionLimit = suggestionLimit;
         applySuggestions();
     }
 
@@ -66,17 +82,16 @@ public class TrackedPlayerArgument extends SafeOverrideableArgument<TrackedPlaye
     @Override
     public <Source> TrackedPlayer parseArgument(CommandContext<Source> cmdCtx, String key, CommandArguments previousArgs) throws CommandSyntaxException {
         String input = CommandAPIHandler.getRawArgumentInput(cmdCtx, key);
-        for (TrackedPlayer trackedPlayer : trackedPlayerSupplier.get()) {
-            if (trackedPlayer.getPlayer().getUsername().equals(input)) return trackedPlayer;
-        }
+        Optional<TrackedPlayer> trackedPlayer = playerTrackerSupplier.get().getQueuePlayer(input);
+        if (trackedPlayer.isPresent() && filter.test(trackedPlayer.get())) return trackedPlayer.get();
 
         throw ERROR_UNKNOWN_PLAYER.create(input);
     }
 
     private void applySuggestions() {
         super.replaceSuggestions((info, builder) -> {
-            Collection<TrackedPlayer> trackedPlayers = trackedPlayerSupplier.get();
-            for (TrackedPlayer trackedPlayer : trackedPlayers) {
+            PlayerTracker playerTracker = playerTrackerSupplier.get();
+            for (TrackedPlayer trackedPlayer : playerTracker.findByUsernamePrefix(builder.getRemaining(), suggestionLimit, filter)) {
                 builder.suggest(trackedPlayer.getPlayer().getUsername());
             }
             return builder.buildFuture();
@@ -32,12 +32,15 @@ import org.spongepowered.configurate.objectmapping.ObjectMapper;
 import dev.hboyd.voidQueue.configuration.serializer.DurationSerializer;
 import dev.hboyd.voidQueue.configuration.serializer.InformMethodSerializer;
 import dev.hboyd.voidQueue.queues.NotifyMethod;
+import dev.hboyd.voidQueue.queues.RetryPolicy;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ConfigService {
     private static final String configFilename = "config.yaml";
@@ -59,6 +62,7 @@ public class ConfigService {
         this.configFactory = ObjectMapper.factoryBuilder()
                 .addConstraint(Constraints.Positive.class, Number.class, new Constraints.Positive.Factory())
                 .addConstraint(Constraints.Min.class, Number.class, new Constraints.Min.Factory())
+                .addConstraint(Constraints.Max.class, Number.class, new Constraints.Max.Factory())
                 .build();
 
         TypeSerializerCollection typeSerializers = TypeSerializerCollection.defaults().childBuilder()
@@ -74,6 +78,7 @@ public class ConfigService {
         if (this.voidQueueConfig == null) {
             throw new RuntimeException("Failed to load Proxy queue config. Null was returned by the loader");
         }
+        migrateFatalErrors();
         if (!configFile.exists()) {
             logger.info("No config detected, saving defaults");
             save();
@@ -91,6 +96,7 @@ public class ConfigService {
         try {
             this.voidQueueConfigNode = this.configLoader.load();
             this.voidQueueConfig = this.voidQueueConfigNode.get(VoidQueueConfig.class);
+            migrateFatalErrors();
         } catch (ConfigurateException e) {
             logger.error("Failed to reload config", e);
             return false;
@@ -98,6 +104,33 @@ public class ConfigService {
         return true;
     }
 
+    /**
+     * Moves the fatalErrors list, replaced by kick classification, into a DROP category so custom fatal reasons keep
+     * disconnecting players after an upgrade. Configs that already classify kicks are left as they are, with a warning.
+     */
+    private void migrateFatalErrors() throws ConfigurateException {
+        CommentedConfigurationNode fatalErrorsNode = voidQueueConfigNode.node("fatalErrors");
+        if (fatalErrorsNode.virtual()) return;
+
+        if (voidQueueConfigNode.node("kickClassification").virtual()) {
+            List<VoidQueueConfig.KickCategory> categories = new ArrayList<>();
+            // First, as any matching fatal reason used to win over every other handling
+            categories.add(new VoidQueueConfig.KickCategory("fatal",
+                    fatalErrorsNode.getList(String.class, List.of()),
+                    RetryPolicy.DROP));
+            for (VoidQueueConfig.KickCategory category : voidQueueConfig.kickClassification.categories) {
+                if (!category.name.equals("fatal")) categories.add(category);
+            }
+            voidQueueConfig.kickClassification.categories = categories;
+            logger.warn("Moved fatalErrors into the 'fatal' kick category of kickClassification");
+
+            voidQueueConfigNode.removeChild("fatalErrors");
+            save();
+        } else {
+            logger.warn("Ignoring fatalErrors as kickClassification is configured, move any reasons it holds into a DROP category");
+        }
+    }
+
     private boolean save() {
         logger.info("Saving config");
         try {
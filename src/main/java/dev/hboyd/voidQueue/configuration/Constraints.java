@@ -59,4 +59,18 @@ public final class Constraints {
             }
         }
     }
+
+    public @interface Max {
+        int value();
+
+        final class Factory implements Constraint.Factory<Max, Number> {
+            public Constraint<Number> make(Max data, Type type) {
+                return num -> {
+                    if (num != null && num.intValue() > data.value()) {
+                        throw new SerializationException(num + " is greater than the max " + data.value());
+                    }
+                };
+            }
+        }
+    }
 }
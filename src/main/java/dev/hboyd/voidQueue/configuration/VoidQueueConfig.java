@@ -29,11 +29,17 @@ import org.spongepowered.configurate.objectmapping.meta.Comment;
 import org.spongepowered.configurate.serialize.TypeSerializerCollection;
 import org.spongepowered.configurate.yaml.NodeStyle;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
+import dev.hboyd.voidQueue.api.queues.QueueType;
 import dev.hboyd.voidQueue.queues.NotifyMethod;
+import dev.hboyd.voidQueue.queues.QueueScheduler;
+import dev.hboyd.voidQueue.queues.RetryPolicy;
+import net.elytrium.limboapi.api.chunk.Dimension;
+import net.elytrium.limboapi.api.player.GameMode;
 
 import java.io.File;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @ConfigSerializable
 public class VoidQueueConfig {
@@ -45,14 +51,42 @@ public class VoidQueueConfig {
     @Constraints.Min(-1)
     public int connectedPlayerLimit = -1;
 
+    @Comment("Derive the connected player limit from the max players the servers report, instead of connectedPlayerLimit")
+    public DynamicConnectedLimit dynamicConnectedLimit = new DynamicConnectedLimit();
+
+    @Comment("Connect players straight to a server, without spawning them in limbo, when nobody is queued ahead of them and there are free slots")
+    public boolean directConnect = false;
+
+    @Comment("Longest a login waits for the admission checks before direct connect is given up on and the player is sent to limbo, where the checks finish")
+    @Constraints.Positive
+    public Duration directConnectWait = Duration.ofMillis(250);
+
+    @Comment("Post a QueueAdvancedEvent once per queue movement with the players who joined, left or moved in the queues. Enable if another plugin listens for it, always on while the admin API is enabled")
+    public boolean queueEvents = false;
+
     @Comment("Duration between each queue movement")
     @Constraints.Positive
     public Duration movementDelay = Duration.ofMillis(500);
 
+    @Comment("How the free slots of each queue movement are shared between the queue types")
+    public Scheduling scheduling = new Scheduling();
+
+    @Comment("Maximum number of players routed per queue movement while the queue is being flushed")
+    @Constraints.Min(1)
+    public int flushRoutesPerTick = 10;
+
+    @Comment("Duration a player may take to connect to a server after leaving the queue before they are returned to it")
+    @Constraints.Positive
+    public Duration connectTimeout = Duration.ofSeconds(15);
+
     @Comment("Duration a disconnected queued player remains in the queue")
     @Constraints.Positive
     public Duration queuedDisconnectTimeout = Duration.ofMinutes(3);
 
+    @Comment("Duration after disconnecting that a queued player may reconnect and keep their position while the queue is full. Capped by queuedDisconnectTimeout")
+    @Constraints.Positive
+    public Duration reconnectWindow = Duration.ofMinutes(3);
+
     @Comment("Duration a disconnected in-game player remains eligible for priority queue upon rejoining.")
     @Constraints.Positive
     public Duration inGameDisconnectTimeout = Duration.ofMinutes(3);
@@ -69,18 +103,296 @@ public class VoidQueueConfig {
     @Constraints.Positive
     public int staffQueueReserved = 15;
 
+    @Comment("Relative capacity of each server when routing players, keyed by server name. Servers not listed have a weight of 1")
+    public Map<String, Integer> serverWeights = Map.of();
+
+    @Comment("Slot limits and reservations of each server, keyed by server name. Servers not listed are only limited by connectedPlayerLimit")
+    public Map<String, ServerSlots> serverSlots = Map.of();
+
+    @Comment("Priority tiers within the queues, resolved from LuckPerms")
+    public Tiers tiers = new Tiers();
+
     @Comment("Permission used to place players in the priority queue")
     public String priorityPermission = "voidqueue.priority";
 
     @Comment("Permission used to place players in the staff queue")
     public String staffPermission = "voidqueue.staff";
 
-    @Comment("List of kick reasons that should be considered fatal. If a player gets kicked from a queued server with one of these reasons, they will be removed from the queue without retrying. Accepts partial reasons")
-    public List<String> fatalErrors = List.of("whitelist", "unable to connect to server", "banned", "died");
+    @Comment("Handling of players kicked from a server, based on the kick reason")
+    public KickClassification kickClassification = new KickClassification();
+
+    @Comment("Number of queue events kept in memory for '/q debug dump', rounded up to a power of two. Each takes 40 bytes off-heap, so the default uses 2.5 MiB and the maximum of 1048576 uses 40 MiB. Set to 0 to disable recording")
+    @Constraints.Min(0)
+    @Constraints.Max(1048576)
+    public int flightRecorderCapacity = 65536;
+
+    @Comment("Maximum number of player names suggested when tab completing queue commands")
+    @Constraints.Min(1)
+    public int commandSuggestionLimit = 50;
 
     @Comment("Methods to notify the player that they are in the queue. Currently supports: BOSSBAR, ACTIONBAR, TEXT, TITLE")
     public List<NotifyMethod> notifyMethods = List.of(NotifyMethod.TITLE);
 
+    @Comment("Rate limiting of joins by IP address and subnet, applied before players are queued")
+    public JoinThrottle joinThrottle = new JoinThrottle();
+
+    @Comment("Checks players must pass before they are queued, run in parallel with their limbo spawn")
+    public Admission admission = new Admission();
+
+    @Comment("Built-in OpenMetrics endpoint, for proxies without the prometheus-exporter plugin")
+    public MetricsExporter metricsExporter = new MetricsExporter();
+
+    @Comment("Local HTTP API serving queue snapshots and a stream of queue changes, for dashboards and tooling")
+    public AdminApi adminApi = new AdminApi();
+
+    @Comment("Health checking of the servers players are routed to")
+    public HealthCheck healthCheck = new HealthCheck();
+
+    @Comment("The limbo world queued players are held in. Built once on startup and shared by all queued players")
+    public LimboWorld limbo = new LimboWorld();
+
+    @ConfigSerializable
+    public static class MetricsExporter {
+        public boolean enabled = false;
+
+        @Comment("Address to listen on. The endpoint has no authentication, so keep it on a local or private address")
+        public String bindAddress = "127.0.0.1";
+
+        @Constraints.Min(1)
+        public int port = 9940;
+
+        public String path = "/metrics";
+
+        @Comment("Initial size in bytes of the buffer each scrape is written to. Grown automatically if too small")
+        @Constraints.Min(1024)
+        public int bufferSize = 16384;
+    }
+
+    @ConfigSerializable
+    public static class AdminApi {
+        public boolean enabled = false;
+
+        @Comment("Address to listen on. Keep it on a local or private address")
+        public String bindAddress = "127.0.0.1";
+
+        @Constraints.Min(1)
+        public int port = 9941;
+
+        @Comment("Token required in an 'Authorization: Bearer' header. Leave empty to allow any client that can reach the address")
+        public String token = "";
+
+        @Comment("Maximum number of clients streaming queue changes at once")
+        @Constraints.Min(1)
+        public int maxSubscribers = 4;
+
+        @Comment("Number of changes buffered for each streaming client. A client that falls further behind is told to fetch a new snapshot")
+        @Constraints.Min(1)
+        public int subscriberBuffer = 64;
+
+        @Comment("Maximum number of players listed for each queue in snapshots, unless a limit is requested")
+        @Constraints.Min(0)
+        public int snapshotPlayerLimit = 100;
+    }
+
+    @ConfigSerializable
+    public static class Admission {
+        @Comment("Require players to have verified their Discord account through ProxyDiscord, when it is installed")
+        public boolean proxyDiscord = true;
+
+        @Comment("Duration passed checks are remembered for each player, so reconnecting players are not checked again")
+        public Duration cacheTtl = Duration.ofMinutes(5);
+
+        @Comment("Duration to wait for the checks to finish before turning the player away")
+        @Constraints.Positive
+        public Duration checkTimeout = Duration.ofSeconds(10);
+    }
+
+    @ConfigSerializable
+    public static class LimboWorld {
+        @Comment("Dimension of the limbo world. Currently supports: OVERWORLD, NETHER, THE_END")
+        public Dimension dimension = Dimension.OVERWORLD;
+
+        public double spawnX = 0;
+        public double spawnY = 100;
+        public double spawnZ = 0;
+        public float spawnYaw = 90;
+        public float spawnPitch = 0;
+
+        @Comment("Game mode of players in limbo")
+        public GameMode gameMode = GameMode.SPECTATOR;
+
+        @Comment("Fixed time of day in limbo, in ticks")
+        public long worldTime = 18000;
+
+        @Comment("View distance sent to players in limbo, in chunks. The limbo world is empty and only the chunks in range are sent on join, so this sets the size of the world each player receives. Keep it small")
+        @Constraints.Min(2)
+        public int viewDistance = 2;
+
+        @Constraints.Min(2)
+        public int simulationDistance = 2;
+    }
+
+    @ConfigSerializable
+    public static class JoinThrottle {
+        public boolean enabled = true;
+
+        @Comment("Duration joins are counted over")
+        @Constraints.Positive
+        public Duration window = Duration.ofSeconds(10);
+
+        @Comment("Number of slots the window is split into. More slots make the window slide more smoothly")
+        @Constraints.Min(1)
+        public int windowSlots = 5;
+
+        @Comment("Maximum joins from a single IP address within the window")
+        @Constraints.Min(1)
+        public int addressLimit = 3;
+
+        @Comment("Maximum joins from a single /24 (IPv4) or /48 (IPv6) subnet within the window")
+        @Constraints.Min(1)
+        public int subnetLimit = 20;
+
+        @Comment("Counters per row of each sketch. Larger sketches overcount less often but use more memory")
+        @Constraints.Min(1)
+        public int sketchWidth = 2048;
+
+        @Comment("Rows of each sketch, each using a different hash")
+        @Constraints.Min(1)
+        public int sketchDepth = 4;
+    }
+
+    @ConfigSerializable
+    public static class Tiers {
+        @Comment("LuckPerms meta key naming a player's tier, by name or index. Players without it get the highest tier whose permission they have")
+        public String metaKey = "voidqueue-tier";
+
+        @Comment("Tiers from lowest to highest, at most 64. Each tier uses the slots of its queue type and is served ahead of lower tiers in the same queue. Leave empty for a normal, priority and staff tier using priorityPermission and staffPermission")
+        public List<Tier> levels = List.of();
+    }
+
+    @ConfigSerializable
+    public static class Tier {
+        @Comment("Name of the tier, matched case-insensitively against the meta key value")
+        public String name = "default";
+
+        @Comment("Queue type whose slots the tier uses. One of: NORMAL, PRIORITY, STAFF")
+        public QueueType queueType = QueueType.NORMAL;
+
+        @Comment("Permission giving the tier. Leave empty to only give the tier through the meta key")
+        public String permission = "";
+    }
+
+    @ConfigSerializable
+    public static class Scheduling {
+        @Comment("DEFICIT_ROUND_ROBIN admits from each waiting queue type in proportion to its weight. FIXED_ORDER always admits staff, then normal, then priority")
+        public QueueScheduler.Policy policy = QueueScheduler.Policy.DEFICIT_ROUND_ROBIN;
+
+        @Comment("Maximum number of players routed per queue movement")
+        @Constraints.Min(1)
+        public int admissionsPerTick = 1;
+
+        @Comment("Relative share of admissions of each queue type. Types not listed have a weight of 1")
+        public Map<QueueType, Double> weights = Map.of(
+                QueueType.STAFF, 8.0,
+                QueueType.PRIORITY, 4.0,
+                QueueType.NORMAL, 1.0);
+
+        @Comment("Wait after which the weight of a queue type has doubled, growing further the longer its first player waits. PT0S to disable")
+        public Duration agingPeriod = Duration.ZERO;
+    }
+
+    @ConfigSerializable
+    public static class ServerSlots {
+        @Comment("Total number of players allowed on the server")
+        @Constraints.Min(0)
+        public int limit = 100;
+
+        @Comment("The number of the server's slots to reserve for priority")
+        @Constraints.Min(0)
+        public int priorityReserved = 0;
+
+        @Comment("The number of the server's slots to reserve for staff")
+        @Constraints.Min(0)
+        public int staffReserved = 0;
+    }
+
+    @ConfigSerializable
+    public static class DynamicConnectedLimit {
+        @Comment("Servers are pinged at the health check ping interval. connectedPlayerLimit is used until a server answers")
+        public boolean enabled = false;
+
+        @Comment("Slots left free below the total max players reported by the available servers")
+        @Constraints.Min(0)
+        public int margin = 5;
+
+        @Comment("Duration for the limit to move halfway to a new reported total, so brief changes are smoothed out")
+        @Constraints.Positive
+        public Duration halfLife = Duration.ofSeconds(30);
+    }
+
+    @ConfigSerializable
+    public static class HealthCheck {
+        @Comment("Duration between each ping of the servers")
+        @Constraints.Positive
+        public Duration pingInterval = Duration.ofSeconds(5);
+
+        @Comment("Duration after which an unanswered ping counts as a failure")
+        @Constraints.Positive
+        public Duration pingTimeout = Duration.ofSeconds(3);
+
+        @Comment("Number of consecutive failed pings or connection attempts before a server stops receiving players")
+        @Constraints.Min(1)
+        public int failureThreshold = 3;
+
+        @Comment("Duration an unhealthy server is skipped before a single trial connection is allowed")
+        @Constraints.Positive
+        public Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    @ConfigSerializable
+    public static class KickClassification {
+        @Comment("""
+                Categories of kick reasons, checked in order. Patterns are case-insensitive and accept partial reasons.
+                Retry policies:
+                    DROP - The player is disconnected with the kick reason
+                    REQUEUE - The player is returned to the back of the queue
+                    REQUEUE_FRONT - The player is returned to the front of the queue
+                    BACKOFF_REQUEUE - The player is returned to the front of the queue after an increasing delay""")
+        public List<KickCategory> categories = List.of(
+                new KickCategory("whitelist", List.of("whitelist"), RetryPolicy.DROP),
+                new KickCategory("fatal", List.of("unable to connect to server", "banned", "died"), RetryPolicy.DROP),
+                new KickCategory("full", List.of("server is full", "full server"), RetryPolicy.REQUEUE_FRONT),
+                new KickCategory("transient", List.of("restarting", "timed out", "connection reset", "server closed"), RetryPolicy.BACKOFF_REQUEUE));
+
+        @Comment("Retry policy for kick reasons that do not match any category")
+        public RetryPolicy unclassifiedPolicy = RetryPolicy.REQUEUE;
+
+        @Comment("Delay before the first BACKOFF_REQUEUE retry, doubled for each consecutive retry")
+        @Constraints.Positive
+        public Duration backoffBase = Duration.ofSeconds(5);
+
+        @Comment("Maximum delay between BACKOFF_REQUEUE retries")
+        @Constraints.Positive
+        public Duration backoffMax = Duration.ofMinutes(2);
+    }
+
+    @ConfigSerializable
+    public static class KickCategory {
+        public String name = "";
+
+        public List<String> patterns = List.of();
+
+        public RetryPolicy retryPolicy = RetryPolicy.REQUEUE;
+
+        public KickCategory() {}
+
+        public KickCategory(String name, List<String> patterns, RetryPolicy retryPolicy) {
+            this.name = name;
+            this.patterns = patterns;
+            this.retryPolicy = retryPolicy;
+        }
+    }
+
     protected static YamlConfigurationLoader getLoader(TypeSerializerCollection typeSerializerCollection, File configFile) {
         return YamlConfigurationLoader.builder()
                 .defaultOptions(configurationOptions ->
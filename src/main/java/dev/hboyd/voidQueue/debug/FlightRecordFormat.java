@@ -0,0 +1,87 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.debug;
+
+/**
+ * Layout of flight recorder records and dump files, shared by {@link FlightRecorder} and {@link FlightRecordReader}.
+ *
+ * <p>Only depends on the JDK, so the reader can run outside the proxy.</p>
+ *
+ * <pre>
+ * Record, {@value #RECORD_SIZE} bytes, big-endian:
+ *   0  long  System.nanoTime() the record was written at
+ *   8  byte  record type, the ordinal of {@link RecordType}
+ *   9  byte  a
+ *   10 short b
+ *   12 int   c
+ *   16 long  x
+ *   24 long  y
+ *   32 long  sequence of the record, written last so a record still being written does not match its slot
+ *
+ * Dump file:
+ *   int magic, int version, int record size, int record count, long first sequence,
+ *   long epoch millis at dump, long nanoTime at dump,
+ *   string tables for connection states, queue types, servers and kick categories,
+ *   each an int count followed by a short length and UTF-8 bytes per string,
+ *   then the records, oldest first
+ * </pre>
+ */
+public final class FlightRecordFormat {
+    public static final int MAGIC = 0x56514652; // VQFR
+    public static final int VERSION = 2;
+    public static final int RECORD_SIZE = 40;
+
+    public static final int OFFSET_NANOS = 0;
+    public static final int OFFSET_TYPE = 8;
+    public static final int OFFSET_A = 9;
+    public static final int OFFSET_B = 10;
+    public static final int OFFSET_C = 12;
+    public static final int OFFSET_X = 16;
+    public static final int OFFSET_Y = 24;
+    public static final int OFFSET_SEQUENCE = 32;
+
+    /*
+     * Unless noted, x and y hold the most and least significant bits of the player's UUID.
+     */
+    public enum RecordType {
+        // a: previous connection state + 1, or 0 for none, b: new connection state + 1, or 0 for none
+        STATE,
+        // a: queue type, b: 1 if added to the front, c: queued players of the queue type afterwards
+        ENQUEUE,
+        // a: queue type, c: queued players of the queue type afterwards
+        REMOVE,
+        // c: server index, or -1 if no server was available
+        ROUTE,
+        // a: kick category, or -1 if kicked while connecting, b: 1 if kicked while connecting
+        KICK,
+        // a: tick flags, c: connections in flight, x: queued players, y: tick duration in nanoseconds
+        TICK
+    }
+
+    public static final int TICK_PAUSED = 1;
+    public static final int TICK_FLUSHING = 1 << 1;
+    public static final int TICK_NO_SERVER = 1 << 2;
+
+    private FlightRecordFormat() {}
+}
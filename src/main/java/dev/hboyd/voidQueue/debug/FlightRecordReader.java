@@ -0,0 +1,158 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.debug;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static dev.hboyd.voidQueue.debug.FlightRecordFormat.*;
+
+/**
+ * Decodes a flight recorder dump into one line per record.
+ *
+ * <p>Only depends on the JDK, run it straight from the plugin jar with
+ * {@code java -cp VoidQueue.jar dev.hboyd.voidQueue.debug.FlightRecordReader <dump>}.</p>
+ */
+public final class FlightRecordReader {
+    private final MappedByteBuffer buffer;
+    private final int recordSize;
+    private final int count;
+    private final long firstSequence;
+    private final long dumpEpochMillis;
+    private final long dumpNanos;
+
+    private final List<String> states;
+    private final List<String> queueTypes;
+    private final List<String> servers;
+    private final List<String> kickCategories;
+
+    public FlightRecordReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != MAGIC) throw new IllegalArgumentException(file + " is not a flight recorder dump");
+        int version = buffer.getInt();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported dump version " + version);
+
+        this.recordSize = buffer.getInt();
+        this.count = buffer.getInt();
+        this.firstSequence = buffer.getLong();
+        this.dumpEpochMillis = buffer.getLong();
+        this.dumpNanos = buffer.getLong();
+
+        this.states = readTable();
+        this.queueTypes = readTable();
+        this.servers = readTable();
+        this.kickCategories = readTable();
+    }
+
+    private List<String> readTable() {
+        int size = buffer.getInt();
+        List<String> table = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            table.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return table;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void print(PrintStream out) {
+        int recordsStart = buffer.position();
+        int skipped = 0;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer record = buffer.slice(recordsStart + i * recordSize, recordSize);
+            // Still being written when the dump was taken
+            if (record.getLong(OFFSET_SEQUENCE) != firstSequence + i) {
+                skipped++;
+                continue;
+            }
+
+            out.println(format(firstSequence + i, record));
+        }
+        if (skipped > 0) out.println(skipped + " incomplete records skipped");
+    }
+
+    private String format(long sequence, ByteBuffer record) {
+        long nanos = record.getLong(OFFSET_NANOS);
+        int typeId = record.get(OFFSET_TYPE) & 0xFF;
+        // Signed, kicks while connecting are recorded with -1
+        int a = record.get(OFFSET_A);
+        int b = record.getShort(OFFSET_B) & 0xFFFF;
+        int c = record.getInt(OFFSET_C);
+        long x = record.getLong(OFFSET_X);
+        long y = record.getLong(OFFSET_Y);
+
+        Instant time = Instant.ofEpochMilli(dumpEpochMillis).minusNanos(dumpNanos - nanos);
+        String prefix = time + " #" + sequence + " ";
+        if (typeId >= RecordType.values().length) return prefix + "UNKNOWN(" + typeId + ")";
+
+        RecordType type = RecordType.values()[typeId];
+        String player = new UUID(x, y).toString();
+        return prefix + type + " " + switch (type) {
+            case STATE -> player + " " + state(a) + " -> " + state(b);
+            case ENQUEUE -> player + " " + name(queueTypes, a) + (b == 1 ? " front" : "") + " queued=" + c;
+            case REMOVE -> player + " " + name(queueTypes, a) + " queued=" + c;
+            case ROUTE -> player + " " + (c < 0 ? "no server" : name(servers, c));
+            case KICK -> player + " " + (b == 1 ? "failed to connect" : name(kickCategories, a));
+            case TICK -> "queued=" + x + " in-flight=" + c + " took=" + y / 1000 + "us"
+                    + ((a & TICK_PAUSED) != 0 ? " paused" : "")
+                    + ((a & TICK_FLUSHING) != 0 ? " flushing" : "")
+                    + ((a & TICK_NO_SERVER) != 0 ? " no-server" : "");
+        };
+    }
+
+    private String state(int id) {
+        return id == 0 ? "none" : name(states, id - 1);
+    }
+
+    private static String name(List<String> table, int index) {
+        return index >= 0 && index < table.size() ? table.get(index) : "#" + index;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: FlightRecordReader <dump file>");
+            System.exit(1);
+        }
+
+        FlightRecordReader reader = new FlightRecordReader(Path.of(args[0]));
+        reader.print(System.out);
+    }
+}
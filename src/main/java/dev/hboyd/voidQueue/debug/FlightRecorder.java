@@ -0,0 +1,270 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.debug;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.queues.TrackedPlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.hboyd.voidQueue.debug.FlightRecordFormat.*;
+
+/**
+ * Fixed size ring of compact binary records of everything the queue does, kept off-heap so it costs nothing to
+ * collect.
+ *
+ * <p>Recording claims a slot with a single atomic increment and writes it in place, so it never allocates or locks.
+ * Once the ring is full the oldest records are overwritten. Each record is stamped with its sequence after the rest
+ * of it is written, and {@link #dump(Path)} writes the ring to a file for {@link FlightRecordReader} to decode, which
+ * skips records whose stamp does not match.</p>
+ */
+public final class FlightRecorder {
+    // 40 MiB of records
+    public static final int MAX_CAPACITY = 1 << 20;
+
+    private static final VarHandle SEQUENCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final DateTimeFormatter DUMP_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final @Nullable ByteBuffer ring;
+    private final int capacity;
+    private final long mask;
+    private final AtomicLong nextSequence;
+
+    private final Map<RegisteredServer, Integer> serverIndexes;
+    private final List<String> serverNames;
+    private final List<String> kickCategories;
+
+    /**
+     * @param capacity       the number of records kept, rounded up to a power of two, or 0 to record nothing
+     * @param servers        the servers players are routed to
+     * @param kickCategories the kick category names, indexed the same as recorded kicks
+     */
+    public FlightRecorder(int capacity, Collection<RegisteredServer> servers, List<String> kickCategories) {
+        if (capacity < 0 || capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("capacity must be between 0 and " + MAX_CAPACITY);
+
+        int normalizedCapacity = capacity == 0 ? 0 : Integer.highestOneBit(capacity);
+        if (normalizedCapacity < capacity) normalizedCapacity <<= 1;
+
+        this.capacity = normalizedCapacity;
+        this.mask = normalizedCapacity - 1L;
+        // Sequence stamps are written atomically, which needs them aligned
+        this.ring = normalizedCapacity == 0
+                ? null
+                : ByteBuffer.allocateDirect(normalizedCapacity * RECORD_SIZE + Long.BYTES - 1).alignedSlice(Long.BYTES);
+        this.nextSequence = new AtomicLong();
+
+        this.serverIndexes = new HashMap<>();
+        this.serverNames = new ArrayList<>(servers.size());
+        for (RegisteredServer server : servers) {
+            serverIndexes.put(server, serverNames.size());
+            serverNames.add(server.getServerInfo().getName());
+        }
+        this.kickCategories = List.copyOf(kickCategories);
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    public void recordState(@NotNull TrackedPlayer trackedPlayer,
+                            TrackedPlayer.@Nullable ConnectionState from,
+                            TrackedPlayer.@Nullable ConnectionState to) {
+        UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+        write(RecordType.STATE, stateId(from), stateId(to), 0, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public void recordEnqueue(@NotNull TrackedPlayer trackedPlayer, @NotNull QueueType queueType, boolean front, int queuedCount) {
+        UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+        write(RecordType.ENQUEUE, queueType.ordinal(), front ? 1 : 0, queuedCount,
+                uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public void recordRemove(@NotNull TrackedPlayer trackedPlayer, @NotNull QueueType queueType, int queuedCount) {
+        recordRemove(trackedPlayer.getPlayer().getUniqueId(), queueType, queuedCount);
+    }
+
+    public void recordRemove(@NotNull UUID uuid, @NotNull QueueType queueType, int queuedCount) {
+        write(RecordType.REMOVE, queueType.ordinal(), 0, queuedCount,
+                uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * @param server the server the player was routed to, or null if no server was available
+     */
+    public void recordRoute(@NotNull TrackedPlayer trackedPlayer, @Nullable RegisteredServer server) {
+        UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+        Integer serverIndex = server == null ? null : serverIndexes.get(server);
+        write(RecordType.ROUTE, 0, 0, serverIndex == null ? -1 : serverIndex,
+                uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public void recordKick(@NotNull TrackedPlayer trackedPlayer, int category) {
+        UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+        write(RecordType.KICK, category, 0, 0, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Records a player who was turned away while connecting to a server, which is not classified as a kick.
+     */
+    public void recordConnectFailure(@NotNull TrackedPlayer trackedPlayer) {
+        UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+        write(RecordType.KICK, -1, 1, 0, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * @param flags a combination of the {@code TICK_} flags in {@link FlightRecordFormat}
+     */
+    public void recordTick(int flags, int inFlight, int queuedCount, long durationNanos) {
+        write(RecordType.TICK, flags, 0, inFlight, queuedCount, durationNanos);
+    }
+
+    private void write(RecordType type, int a, int b, int c, long x, long y) {
+        if (ring == null) return;
+
+        long sequence = nextSequence.getAndIncrement();
+        int offset = (int) (sequence & mask) * RECORD_SIZE;
+        ring.putLong(offset + OFFSET_NANOS, System.nanoTime());
+        ring.put(offset + OFFSET_TYPE, (byte) type.ordinal());
+        ring.put(offset + OFFSET_A, (byte) a);
+        ring.putShort(offset + OFFSET_B, (short) b);
+        ring.putInt(offset + OFFSET_C, c);
+        ring.putLong(offset + OFFSET_X, x);
+        ring.putLong(offset + OFFSET_Y, y);
+        // Published after the rest of the record, so a matching stamp means the record is complete
+        SEQUENCE.setRelease(ring, offset + OFFSET_SEQUENCE, sequence);
+    }
+
+    private static int stateId(TrackedPlayer.@Nullable ConnectionState state) {
+        return state == null ? 0 : state.ordinal() + 1;
+    }
+
+    /**
+     * Writes the recorded records, oldest first, to a new memory-mapped file in a directory.
+     *
+     * @return the file written
+     */
+    public Path dump(@NotNull Path directory) throws IOException {
+        if (ring == null) throw new IllegalStateException("The flight recorder is disabled");
+
+        long end = nextSequence.get();
+        long start = Math.max(0, end - capacity);
+        byte[] records = new byte[(int) (end - start) * RECORD_SIZE];
+        copy(start, records);
+
+        // Records overwritten while copying may be torn, so are left out
+        VarHandle.acquireFence();
+        long overwrittenBefore = nextSequence.get() - capacity;
+        int skipped = (int) Math.max(0, Math.min(end - start, overwrittenBefore - start));
+        long firstSequence = start + skipped;
+        int count = (int) (end - firstSequence);
+
+        byte[] header = header(count, firstSequence);
+        Path file = directory.resolve("flight-" + LocalDateTime.now().format(DUMP_NAME_FORMAT) + ".vqfr");
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, header.length + (long) count * RECORD_SIZE);
+            mapped.put(header);
+            mapped.put(records, skipped * RECORD_SIZE, count * RECORD_SIZE);
+            mapped.force();
+        }
+        return file;
+    }
+
+    /*
+     * Each stamp is read before the rest of its record, so a record copied with a matching stamp was completely
+     * written, unless it was overwritten during the copy.
+     */
+    private void copy(long start, byte[] records) {
+        ByteBuffer source = ring.duplicate();
+        ByteBuffer target = ByteBuffer.wrap(records);
+        int count = records.length / RECORD_SIZE;
+        for (int i = 0; i < count; i++) {
+            int offset = (int) ((start + i) & mask) * RECORD_SIZE;
+            long sequence = (long) SEQUENCE.getAcquire(ring, offset + OFFSET_SEQUENCE);
+
+            source.get(offset, records, i * RECORD_SIZE, OFFSET_SEQUENCE);
+            target.putLong(i * RECORD_SIZE + OFFSET_SEQUENCE, sequence);
+        }
+    }
+
+    private byte[] header(int count, long firstSequence) {
+        List<byte[]> strings = new ArrayList<>();
+        List<List<String>> tables = List.of(
+                Arrays.stream(TrackedPlayer.ConnectionState.values()).map(Enum::name).toList(),
+                Arrays.stream(QueueType.values()).map(Enum::name).toList(),
+                serverNames,
+                kickCategories);
+
+        int size = 4 * 4 + 3 * 8 + tables.size() * 4;
+        for (List<String> table : tables) {
+            for (String value : table) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                strings.add(bytes);
+                size += 2 + bytes.length;
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(count)
+                .putLong(firstSequence)
+                .putLong(System.currentTimeMillis())
+                .putLong(System.nanoTime());
+
+        int index = 0;
+        for (List<String> table : tables) {
+            header.putInt(table.size());
+            for (int i = 0; i < table.size(); i++) {
+                byte[] bytes = strings.get(index++);
+                header.putShort((short) bytes.length).put(bytes);
+            }
+        }
+        return header.array();
+    }
+}
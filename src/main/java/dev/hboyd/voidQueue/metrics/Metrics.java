@@ -29,7 +29,9 @@ package dev.hboyd.voidQueue.metrics;
 import dev.hboyd.voidQueue.api.VoidQueue;
 
 public class Metrics {
-	public Metrics(VoidQueue plugin) {
-		new PlayersQueued(plugin).enable();
+	public Metrics(VoidQueue plugin, MetricsRegistry metricsRegistry) {
+		for (MetricsRegistry.Metric metric : metricsRegistry.getMetrics()) {
+			RegistryMetric.create(plugin, metric).enable();
+		}
 	}
 }
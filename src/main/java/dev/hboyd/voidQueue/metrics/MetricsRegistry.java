@@ -0,0 +1,163 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.metrics;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.queues.InFlightConnections;
+import dev.hboyd.voidQueue.queues.JoinThrottle;
+import dev.hboyd.voidQueue.queues.PlayerTracker;
+import dev.hboyd.voidQueue.queues.QueueStore;
+import dev.hboyd.voidQueue.queues.VoidQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Definitions of every metric, independent of how they are exported.
+ *
+ * <p>Each metric reads counters maintained by the queue, so collecting every metric costs a handful of atomic reads
+ * regardless of the size of the queue. The same definitions back both the built-in exporter and the
+ * prometheus-exporter plugin.</p>
+ */
+public final class MetricsRegistry {
+    public enum Type {
+        GAUGE,
+        COUNTER
+    }
+
+    /**
+     * Receives the samples of a metric. Separate methods per label count avoid allocating label arrays.
+     */
+    public interface Sink {
+        void sample(double value);
+
+        void sample(double value, @NotNull String labelValue);
+
+        void sample(double value, @NotNull String firstLabelValue, @NotNull String secondLabelValue);
+    }
+
+    public record Metric(@NotNull String name,
+                         @NotNull String help,
+                         @NotNull Type type,
+                         @NotNull List<String> labelNames,
+                         @NotNull Consumer<Sink> collector) {}
+
+    private static final String[] QUEUE_TYPE_LABELS = new String[QueueType.values().length];
+
+    static {
+        for (QueueType queueType : QueueType.values()) {
+            QUEUE_TYPE_LABELS[queueType.ordinal()] = queueType.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final List<Metric> metrics;
+
+    public MetricsRegistry(@NotNull VoidQueue voidQueue) {
+        List<Metric> metrics = new ArrayList<>();
+
+        metrics.add(new Metric("players_queued",
+                "Number of queued players by queue type and whether they are connected to the proxy",
+                Type.GAUGE, List.of("queue_type", "state"), sink -> {
+            QueueStore queueStore = voidQueue.getQueueStore();
+            for (QueueType queueType : QueueType.values()) {
+                int offline = queueStore.getQueuedInActiveCount(queueType);
+                sink.sample(queueStore.getQueuedCount(queueType) - offline, label(queueType), "online");
+                sink.sample(offline, label(queueType), "offline");
+            }
+        }));
+
+        metrics.add(new Metric("players_in_game", "Number of players on a server by queue type",
+                Type.GAUGE, List.of("queue_type"), sink -> {
+            PlayerTracker playerTracker = voidQueue.getPlayerTracker();
+            for (QueueType queueType : QueueType.values()) {
+                sink.sample(playerTracker.getInGameCount(queueType), label(queueType));
+            }
+        }));
+
+        metrics.add(new Metric("slots_used", "Number of server slots used by queue type, including players still connecting",
+                Type.GAUGE, List.of("queue_type"), sink -> {
+            for (QueueType queueType : QueueType.values()) {
+                sink.sample(voidQueue.getSlotsUsed(queueType), label(queueType));
+            }
+        }));
+
+        metrics.add(new Metric("slots_headroom",
+                "Number of reserved server slots left by queue type, negative when overflowing into other slots",
+                Type.GAUGE, List.of("queue_type"), sink -> {
+            for (QueueType queueType : QueueType.values()) {
+                sink.sample(voidQueue.getReservedSlots(queueType) - voidQueue.getSlotsUsed(queueType), label(queueType));
+            }
+        }));
+
+        metrics.add(new Metric("queue_pauses", "Number of active queue pauses",
+                Type.GAUGE, List.of(), sink -> sink.sample(voidQueue.getPauses().size())));
+
+        metrics.add(new Metric("connections_in_flight",
+                "Number of players routed to a server who have not finished connecting, by queue type",
+                Type.GAUGE, List.of("queue_type"), sink -> {
+            InFlightConnections inFlightConnections = voidQueue.getQueueRouterService().getInFlightConnections();
+            for (QueueType queueType : QueueType.values()) {
+                sink.sample(inFlightConnections.getCount(queueType), label(queueType));
+            }
+        }));
+
+        metrics.add(new Metric("players_routed", "Number of players routed to each server",
+                Type.COUNTER, List.of("server"), sink -> {
+            for (Map.Entry<RegisteredServer, Long> count : voidQueue.getQueueRouterService().getRoutedCounts().entrySet()) {
+                sink.sample(count.getValue(), count.getKey().getServerInfo().getName());
+            }
+        }));
+
+        metrics.add(new Metric("kicks_classified", "Number of server kicks of queued players by kick category",
+                Type.COUNTER, List.of("category"), sink -> {
+            for (Map.Entry<String, Long> count : voidQueue.getKickClassifier().getClassificationCounts().entrySet()) {
+                sink.sample(count.getValue(), count.getKey());
+            }
+        }));
+
+        metrics.add(new Metric("joins_throttled",
+                "Number of joins rejected for exceeding the join rate limit, by the limit exceeded",
+                Type.COUNTER, List.of("limit"), sink -> {
+            JoinThrottle joinThrottle = voidQueue.getJoinThrottle();
+            sink.sample(joinThrottle.getAddressRejectionCount(), "address");
+            sink.sample(joinThrottle.getSubnetRejectionCount(), "subnet");
+        }));
+
+        this.metrics = Collections.unmodifiableList(metrics);
+    }
+
+    public List<Metric> getMetrics() {
+        return metrics;
+    }
+
+    private static String label(QueueType queueType) {
+        return QUEUE_TYPE_LABELS[queueType.ordinal()];
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Built-in OpenMetrics endpoint serving the {@link MetricsRegistry}, for proxies without the prometheus-exporter plugin.
+ *
+ * <p>Every scrape is written into the same buffer, which is only reallocated if it turns out too small. Names, help
+ * text and label names are encoded once on startup, so a scrape only writes label values and numbers.</p>
+ */
+public class OpenMetricsExporter implements HttpHandler, MetricsRegistry.Sink {
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String PREFIX = "voidqueue_";
+    private static final byte[] EOF = "# EOF\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Logger logger;
+    private final MetricsRegistry metricsRegistry;
+    private final HttpServer server;
+
+    // Per metric: the TYPE and HELP lines, the sample name and the text before each label value
+    private final byte[][] headers;
+    private final byte[][] sampleNames;
+    private final byte[][][] labelPrefixes;
+
+    private byte[] buffer;
+    private int length;
+    private int metricIndex;
+
+    public OpenMetricsExporter(Logger logger,
+                               MetricsRegistry metricsRegistry,
+                               VoidQueueConfig.MetricsExporter config) throws IOException {
+        this.logger = logger;
+        this.metricsRegistry = metricsRegistry;
+        this.buffer = new byte[config.bufferSize];
+
+        List<MetricsRegistry.Metric> metrics = metricsRegistry.getMetrics();
+        this.headers = new byte[metrics.size()][];
+        this.sampleNames = new byte[metrics.size()][];
+        this.labelPrefixes = new byte[metrics.size()][][];
+
+        for (int i = 0; i < metrics.size(); i++) {
+            MetricsRegistry.Metric metric = metrics.get(i);
+            String name = PREFIX + metric.name();
+            String type = metric.type() == MetricsRegistry.Type.COUNTER ? "counter" : "gauge";
+
+            headers[i] = ("# TYPE " + name + " " + type + "\n# HELP " + name + " " + escapeHelp(metric.help()) + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            sampleNames[i] = (metric.type() == MetricsRegistry.Type.COUNTER ? name + "_total" : name)
+                    .getBytes(StandardCharsets.UTF_8);
+
+            List<String> labelNames = metric.labelNames();
+            labelPrefixes[i] = new byte[labelNames.size()][];
+            for (int label = 0; label < labelNames.size(); label++) {
+                labelPrefixes[i][label] = ((label == 0 ? "{" : "\",") + labelNames.get(label) + "=\"")
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress(config.bindAddress, config.port), 0);
+        this.server.createContext(config.path, this);
+        // Scrapes are handled one at a time on the dispatcher thread, so the buffer is never shared
+        this.server.setExecutor(null);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Serving metrics on {}", server.getAddress());
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            render();
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, length);
+            exchange.getResponseBody().write(buffer, 0, length);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to collect metrics", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void render() {
+        length = 0;
+        List<MetricsRegistry.Metric> metrics = metricsRegistry.getMetrics();
+        for (metricIndex = 0; metricIndex < metrics.size(); metricIndex++) {
+            write(headers[metricIndex]);
+            metrics.get(metricIndex).collector().accept(this);
+        }
+        write(EOF);
+    }
+
+    @Override
+    public void sample(double value) {
+        write(sampleNames[metricIndex]);
+        writeValue(value);
+    }
+
+    @Override
+    public void sample(double value, @NotNull String labelValue) {
+        write(sampleNames[metricIndex]);
+        write(labelPrefixes[metricIndex][0]);
+        writeLabelValue(labelValue);
+        writeValue(value);
+    }
+
+    @Override
+    public void sample(double value, @NotNull String firstLabelValue, @NotNull String secondLabelValue) {
+        write(sampleNames[metricIndex]);
+        write(labelPrefixes[metricIndex][0]);
+        writeLabelValue(firstLabelValue);
+        write(labelPrefixes[metricIndex][1]);
+        writeLabelValue(secondLabelValue);
+        writeValue(value);
+    }
+
+    // Writes the closing of the label set, if any, then the value and the end of the line
+    private void writeValue(double value) {
+        if (labelPrefixes[metricIndex].length > 0) {
+            ensureCapacity(2);
+            buffer[length++] = '"';
+            buffer[length++] = '}';
+        }
+
+        ensureCapacity(1);
+        buffer[length++] = ' ';
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            writeLong((long) value);
+        } else {
+            write(Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        ensureCapacity(1);
+        buffer[length++] = '\n';
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        // Digits were written least significant first
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+
+    private void writeLabelValue(String value) {
+        // At most 4 bytes per code point, or 2 for an escaped character
+        ensureCapacity(value.length() * 4);
+        for (int i = 0; i < value.length(); i++) {
+            int codePoint = value.codePointAt(i);
+            if (Character.isSupplementaryCodePoint(codePoint)) i++;
+
+            switch (codePoint) {
+                case '\\' -> { buffer[length++] = '\\'; buffer[length++] = '\\'; }
+                case '"' -> { buffer[length++] = '\\'; buffer[length++] = '"'; }
+                case '\n' -> { buffer[length++] = '\\'; buffer[length++] = 'n'; }
+                default -> writeCodePoint(codePoint);
+            }
+        }
+    }
+
+    private void writeCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            buffer[length++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[length++] = (byte) (0xC0 | codePoint >> 6);
+            buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            buffer[length++] = (byte) (0xE0 | codePoint >> 12);
+            buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+        }
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional <= buffer.length) return;
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.metrics;
+
+import de.sldk.mc.metrics.AbstractMetric;
+import io.prometheus.metrics.core.metrics.CounterWithCallback;
+import io.prometheus.metrics.core.metrics.GaugeWithCallback;
+import io.prometheus.metrics.model.registry.Collector;
+import org.jetbrains.annotations.NotNull;
+
+import dev.hboyd.voidQueue.api.VoidQueue;
+
+/**
+ * Exposes a {@link MetricsRegistry} metric through the prometheus-exporter plugin.
+ */
+public class RegistryMetric extends AbstractMetric {
+    private final Collector collector;
+
+    private RegistryMetric(VoidQueue plugin, Collector collector) {
+        super(plugin, collector);
+        this.collector = collector;
+    }
+
+    public static RegistryMetric create(VoidQueue plugin, MetricsRegistry.Metric metric) {
+        String[] labelNames = metric.labelNames().toArray(String[]::new);
+
+        Collector collector = switch (metric.type()) {
+            case GAUGE -> GaugeWithCallback.builder()
+                    .name(prefix(metric.name()))
+                    .help(metric.help())
+                    .labelNames(labelNames)
+                    .callback(callback -> metric.collector().accept(sink(callback::call)))
+                    .build();
+            case COUNTER -> CounterWithCallback.builder()
+                    .name(prefix(metric.name()))
+                    .help(metric.help())
+                    .labelNames(labelNames)
+                    .callback(callback -> metric.collector().accept(sink(callback::call)))
+                    .build();
+        };
+
+        return new RegistryMetric(plugin, collector);
+    }
+
+    private static MetricsRegistry.Sink sink(SampleCallback callback) {
+        return new MetricsRegistry.Sink() {
+            @Override
+            public void sample(double value) {
+                callback.call(value);
+            }
+
+            @Override
+            public void sample(double value, @NotNull String labelValue) {
+                callback.call(value, labelValue);
+            }
+
+            @Override
+            public void sample(double value, @NotNull String firstLabelValue, @NotNull String secondLabelValue) {
+                callback.call(value, firstLabelValue, secondLabelValue);
+            }
+        };
+    }
+
+    // Gauge and counter callbacks share a signature but not a type
+    @FunctionalInterface
+    private interface SampleCallback {
+        void call(double value, String... labelValues);
+    }
+
+    protected void initialValue() {
+        collector.collect();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.ResultedEvent;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects players before they log in when the queue is full, so no permissions are loaded and no limbo world is
+ * sent for a player who would be turned away.
+ *
+ * <p>Players who pass the gate hold a reservation until they are queued or disconnect, so a burst of logins cannot
+ * overshoot the limit while they are still on their way to limbo. Players who already hold a position in the queue
+ * and reconnect within the reconnect window are always admitted. Only the authenticated UUID seen at login counts as
+ * holding a position, pre-login merely lets a claimed holder through to be checked there.</p>
+ */
+public class AdmissionGate {
+    private final Logger logger;
+    private final QueueStore queueStore;
+    private final PlayerTracker playerTracker;
+    private final @Nullable Integer queuedPlayerLimit;
+    private final Duration reconnectWindow;
+
+    private final Set<UUID> reservations;
+    private final LongAdder rejections;
+
+    /**
+     * @param queuedPlayerLimit the maximum number of queued players, or null for no limit
+     * @param reconnectWindow   how long after disconnecting a queued player may reconnect past a full queue
+     */
+    public AdmissionGate(Logger logger,
+                         QueueStore queueStore,
+                         PlayerTracker playerTracker,
+                         @Nullable Integer queuedPlayerLimit,
+                         Duration reconnectWindow) {
+        this.logger = logger;
+        this.queueStore = queueStore;
+        this.playerTracker = playerTracker;
+        this.queuedPlayerLimit = queuedPlayerLimit;
+        this.reconnectWindow = reconnectWindow;
+
+        this.reservations = ConcurrentHashMap.newKeySet();
+        this.rejections = new LongAdder();
+    }
+
+    /**
+     * Releases the reservation held by a player, as they have been queued.
+     *
+     * @return true if the player held a reservation
+     */
+    public boolean release(@NotNull UUID uuid) {
+        return reservations.remove(uuid);
+    }
+
+    public boolean hasReservation(@NotNull UUID uuid) {
+        return reservations.contains(uuid);
+    }
+
+    /**
+     * Checks whether the queue can take another player, counting players that have been admitted but not yet queued.
+     */
+    public boolean isFull() {
+        return queuedPlayerLimit != null && queueStore.getQueuedCount() + reservations.size() >= queuedPlayerLimit;
+    }
+
+    public int getReservationCount() {
+        return reservations.size();
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    // Runs after the join throttle, which is first, and ahead of other plugins so rejected players are not seen by them
+    @Subscribe(order = PostOrder.EARLY)
+    private void onPreLogin(PreLoginEvent event) {
+        if (!event.getResult().isAllowed() || queuedPlayerLimit == null) return;
+        if (!isFull()) return;
+        // The UUID is not authenticated yet, so a claim to hold a position only defers the decision to login
+        if (event.getUniqueId() != null && holdsPosition(event.getUniqueId())) return;
+
+        rejections.increment();
+        logger.debug("Rejecting {} at pre-login as the queue is full", event.getUsername());
+        event.setResult(PreLoginEvent.PreLoginComponentResult.denied(Component.translatable("queue.errors.queue-full")));
+    }
+
+    // The pre-login check does not reserve a slot, as the player has not been authenticated yet. Runs after the join
+    // throttle has settled its deferred joins, so no slot is reserved for a join it turns away
+    @Subscribe(order = PostOrder.EARLY)
+    private void onLogin(LoginEvent event) {
+        if (!event.getResult().isAllowed() || queuedPlayerLimit == null) return;
+
+        UUID uuid = event.getPlayer().getUniqueId();
+        if (holdsPosition(uuid)) return;
+
+        synchronized (this) {
+            if (!isFull()) {
+                reservations.add(uuid);
+                return;
+            }
+        }
+
+        rejections.increment();
+        logger.debug("Rejecting {} at login as the queue is full", event.getPlayer().getUsername());
+        event.setResult(ResultedEvent.ComponentResult.denied(Component.translatable("queue.errors.queue-full")));
+    }
+
+    @Subscribe
+    private void onDisconnect(DisconnectEvent event) {
+        reservations.remove(event.getPlayer().getUniqueId());
+    }
+
+    private boolean holdsPosition(UUID uuid) {
+        Optional<GhostTable.Ghost> ghost = queueStore.getGhost(uuid);
+        if (ghost.isPresent()) return System.nanoTime() - ghost.get().disconnectNanos() < reconnectWindow.toNanos();
+
+        Optional<TrackedPlayer> trackedPlayer = playerTracker.getQueuePlayer(uuid);
+        if (trackedPlayer.isEmpty() || !queueStore.isQueued(trackedPlayer.get())) return false;
+
+        return trackedPlayer.get().getLastDisconnect()
+                .map(disconnect -> !disconnect.hasElapsed(reconnectWindow))
+                .orElse(true);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.proxy.Player;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.utils.LuckPermsPermissionUtil;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the checks a player must pass before joining the queue.
+ *
+ * <p>Checks start at login and run in parallel with each other and with the limbo spawn, so by the time the player
+ * is ready to be queued they have usually finished. Permissions are loaded alongside the checks, ready for when the
+ * player is tracked. Passed checks are cached per player for a while, so reconnecting players skip repeat lookups.
+ * Failed checks are never cached, letting a player retry as soon as they have fixed the problem.</p>
+ */
+public class AdmissionPipeline {
+    public record Result(boolean allowed, @Nullable Component reason) {
+        private static final Result ALLOWED = new Result(true, null);
+
+        public static Result allow() {
+            return ALLOWED;
+        }
+
+        public static Result deny(@NotNull Component reason) {
+            return new Result(false, reason);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Check {
+        CompletableFuture<Result> check(@NotNull Player player);
+    }
+
+    /**
+     * @param owner the plugin that added the check, or null for checks of our own
+     */
+    private record RegisteredCheck(@Nullable Object owner, @NotNull Check check) {}
+
+    private final Logger logger;
+    private final VoidQueueConfig.Admission config;
+
+    private final List<RegisteredCheck> checks;
+    private final ConcurrentHashMap<UUID, CompletableFuture<Result>> pending;
+    // Expiry of each player's last passed checks, as a System#nanoTime
+    private final ConcurrentHashMap<UUID, Long> passed;
+
+    public AdmissionPipeline(Logger logger, VoidQueueConfig.Admission config) {
+        this.logger = logger;
+        this.config = config;
+
+        this.checks = new CopyOnWriteArrayList<>();
+        this.pending = new ConcurrentHashMap<>();
+        this.passed = new ConcurrentHashMap<>();
+    }
+
+    public void addCheck(@NotNull Check check) {
+        checks.add(new RegisteredCheck(null, check));
+    }
+
+    public void addCheck(@NotNull Object owner, @NotNull Check check) {
+        checks.add(new RegisteredCheck(owner, check));
+    }
+
+    /**
+     * Removes every check added by an owner.
+     */
+    public void removeChecks(@NotNull Object owner) {
+        checks.removeIf(check -> owner.equals(check.owner()));
+    }
+
+    /**
+     * Forgets a player's passed checks, so they are checked again on their next join.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        passed.remove(uuid);
+    }
+
+    /**
+     * Returns the result of the checks started for the player at login, starting them now if they were not.
+     * The result is kept for a later {@link #admit(Player)}.
+     */
+    public CompletableFuture<Result> get(@NotNull Player player) {
+        return pending.computeIfAbsent(player.getUniqueId(), uuid -> start(player));
+    }
+
+    /**
+     * Returns the result of the checks started for the player at login, starting them now if they were not.
+     */
+    public CompletableFuture<Result> admit(@NotNull Player player) {
+        CompletableFuture<Result> result = pending.remove(player.getUniqueId());
+        return result != null ? result : start(player);
+    }
+
+    /**
+     * Drops the result of the checks started for a player who no longer needs them.
+     */
+    public void discard(@NotNull UUID uuid) {
+        pending.remove(uuid);
+    }
+
+    public void pruneExpired() {
+        long now = System.nanoTime();
+        passed.values().removeIf(expiry -> now - expiry >= 0);
+    }
+
+    @Subscribe
+    private void onLogin(LoginEvent event) {
+        if (!event.getResult().isAllowed()) return;
+
+        Player player = event.getPlayer();
+        pending.put(player.getUniqueId(), start(player));
+    }
+
+    @Subscribe
+    private void onDisconnect(DisconnectEvent event) {
+        CompletableFuture<Result> result = pending.remove(event.getPlayer().getUniqueId());
+        if (result != null) result.cancel(false);
+    }
+
+    private CompletableFuture<Result> start(Player player) {
+        UUID uuid = player.getUniqueId();
+        LuckPermsPermissionUtil.ensurePlayerPermissionsCached(uuid);
+
+        Long expiry = passed.get(uuid);
+        if (expiry != null && System.nanoTime() - expiry < 0) return CompletableFuture.completedFuture(Result.allow());
+        if (checks.isEmpty()) return CompletableFuture.completedFuture(Result.allow());
+
+        List<CompletableFuture<Result>> results = new ArrayList<>(checks.size());
+        for (RegisteredCheck check : checks) results.add(run(check.check(), player));
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .orTimeout(config.checkTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> {
+                    Optional<Result> denied = results.stream().map(CompletableFuture::join).filter(result -> !result.allowed()).findFirst();
+                    if (denied.isPresent()) return denied.get();
+
+                    passed.put(uuid, System.nanoTime() + config.cacheTtl.toNanos());
+                    return Result.allow();
+                })
+                .exceptionally(throwable -> {
+                    logger.warn("Admission checks failed for {}", player.getUsername(), throwable);
+                    return Result.deny(Component.translatable("queue.errors.admission-failed"));
+                });
+    }
+
+    // A check that throws fails the same way as one that completes exceptionally, without stopping the others
+    private static CompletableFuture<Result> run(Check check, Player player) {
+        try {
+            return Objects.requireNonNull(check.check(player), "check returned no result");
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+
+import java.util.OptionalInt;
+
+/**
+ * Derives the connected player limit from the max players the servers report in their pings.
+ *
+ * <p>The limit is the sum reported by the available servers minus a margin, smoothed with an exponential moving
+ * average so a server briefly dropping out, or restarting with a different max, moves the limit gradually rather
+ * than all at once.</p>
+ */
+public class CapacityEstimator {
+    private final ServerHealthMonitor serverHealthMonitor;
+    private final int margin;
+    private final long halfLifeNanos;
+
+    private double smoothedLimit;
+    private long lastUpdateNanos;
+    private boolean hasReport;
+
+    /**
+     * @param initialLimit the limit used until a server has reported its max players
+     */
+    public CapacityEstimator(ServerHealthMonitor serverHealthMonitor,
+                             VoidQueueConfig.DynamicConnectedLimit config,
+                             int initialLimit) {
+        this.serverHealthMonitor = serverHealthMonitor;
+        this.margin = config.margin;
+        this.halfLifeNanos = config.halfLife.toNanos();
+
+        this.smoothedLimit = initialLimit;
+        this.lastUpdateNanos = System.nanoTime();
+    }
+
+    /**
+     * Moves the limit towards the total currently reported by the servers.
+     *
+     * @return the new limit
+     */
+    public synchronized int update(long nowNanos) {
+        int reportedTotal = 0;
+        boolean reported = false;
+        for (RegisteredServer server : serverHealthMonitor.getServers()) {
+            // Players cannot be routed to unavailable servers, so their slots do not count
+            if (!serverHealthMonitor.isAvailable(server)) continue;
+
+            OptionalInt maxPlayers = serverHealthMonitor.getReportedMaxPlayers(server);
+            if (maxPlayers.isEmpty()) continue;
+
+            reportedTotal += maxPlayers.getAsInt();
+            reported = true;
+        }
+
+        long elapsed = nowNanos - lastUpdateNanos;
+        lastUpdateNanos = nowNanos;
+        if (!reported) return getLimit();
+
+        double target = Math.max(0, reportedTotal - margin);
+        if (!hasReport) {
+            // Nothing to smooth from yet, the initial limit is only a placeholder
+            smoothedLimit = target;
+            hasReport = true;
+        } else {
+            double alpha = 1 - Math.pow(0.5, (double) elapsed / halfLifeNanos);
+            smoothedLimit += alpha * (target - smoothedLimit);
+        }
+
+        return getLimit();
+    }
+
+    public synchronized int getLimit() {
+        return (int) Math.round(smoothedLimit);
+    }
+}
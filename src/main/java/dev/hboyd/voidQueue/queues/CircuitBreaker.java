@@ -0,0 +1,123 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+/**
+ * Per-server circuit breaker fed by health probes and connection attempts.
+ *
+ * <p>After {@code failureThreshold} consecutive failures the breaker opens and no players are routed to the
+ * server. Once {@code openDurationNanos} has passed it becomes half-open, letting a single trial connection
+ * through; a success closes it again and a failure re-opens it.</p>
+ */
+public final class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openDurationNanos) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold must be at least 1");
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+    }
+
+    /**
+     * Attempts to acquire permission to send a player to the server.
+     * In the half-open state only one caller is given permission until a result is recorded.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return whether a player may be sent to the server
+     */
+    public synchronized boolean tryAcquire(long nowNanos) {
+        return switch (updateState(nowNanos)) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Returns whether a call to {@link #tryAcquire(long)} could currently succeed, without acquiring.
+     */
+    public synchronized boolean isAvailable(long nowNanos) {
+        return switch (updateState(nowNanos)) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> !trialInFlight;
+        };
+    }
+
+    /**
+     * @return the previous state
+     */
+    public synchronized State recordSuccess(long nowNanos) {
+        State previousState = updateState(nowNanos);
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (previousState != State.OPEN) state = State.CLOSED;
+        return previousState;
+    }
+
+    /**
+     * @return the previous state
+     */
+    public synchronized State recordFailure(long nowNanos) {
+        State previousState = updateState(nowNanos);
+        trialInFlight = false;
+        consecutiveFailures++;
+
+        if (previousState == State.HALF_OPEN
+                || (previousState == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = nowNanos;
+        }
+        return previousState;
+    }
+
+    public synchronized State getState(long nowNanos) {
+        return updateState(nowNanos);
+    }
+
+    private State updateState(long nowNanos) {
+        if (state == State.OPEN && nowNanos - openedAtNanos >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return state;
+    }
+}
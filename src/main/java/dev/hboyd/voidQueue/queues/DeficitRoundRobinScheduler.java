@@ -0,0 +1,99 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.api.queues.QueueType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deficit round robin over the queue types, so each type waiting for a slot is admitted in proportion to its weight.
+ *
+ * <p>Each time a type's turn comes round it is credited its weight, and every admission spends one credit. Types with
+ * nobody waiting lose their credit, so a type cannot save up admissions while it is empty. With aging enabled a type's
+ * weight grows with how long the player at its head has waited, so a low weight type is never starved.</p>
+ */
+public class DeficitRoundRobinScheduler implements QueueScheduler {
+    private static final QueueType[] QUEUE_TYPES = QueueType.values();
+
+    private final double[] weights;
+    private final long agingNanos;
+
+    private final double[] deficits;
+    private int current;
+    private boolean credited;
+
+    /**
+     * @param weights     the weight of each queue type, types not listed have a weight of 1
+     * @param agingPeriod the wait after which the weight of a type has doubled, or zero to disable aging
+     */
+    public DeficitRoundRobinScheduler(Map<QueueType, Double> weights, Duration agingPeriod) {
+        if (agingPeriod.isNegative()) throw new IllegalArgumentException("agingPeriod cannot be negative");
+
+        this.weights = new double[QUEUE_TYPES.length];
+        for (QueueType queueType : QUEUE_TYPES) {
+            double weight = weights.getOrDefault(queueType, 1.0);
+            if (!(weight > 0)) throw new IllegalArgumentException("Weight of " + queueType + " must be positive");
+            this.weights[queueType.ordinal()] = weight;
+        }
+
+        this.agingNanos = agingPeriod.toNanos();
+        this.deficits = new double[QUEUE_TYPES.length];
+    }
+
+    @Override
+    public Optional<QueueType> next(Map<QueueType, Long> waiting) {
+        if (waiting.isEmpty()) return Optional.empty();
+
+        for (QueueType queueType : QUEUE_TYPES) {
+            if (!waiting.containsKey(queueType)) deficits[queueType.ordinal()] = 0;
+        }
+
+        // Terminates as every waiting type gains a positive credit on each of its turns
+        while (true) {
+            QueueType queueType = QUEUE_TYPES[current];
+            Long waitedNanos = waiting.get(queueType);
+            if (waitedNanos != null) {
+                if (!credited) {
+                    deficits[current] += quantum(current, waitedNanos);
+                    credited = true;
+                }
+                if (deficits[current] >= 1) {
+                    deficits[current] -= 1;
+                    return Optional.of(queueType);
+                }
+            }
+
+            current = (current + 1) % QUEUE_TYPES.length;
+            credited = false;
+        }
+    }
+
+    private double quantum(int queueType, long waitedNanos) {
+        if (agingNanos == 0) return weights[queueType];
+        return weights[queueType] * (1 + (double) Math.max(0, waitedNanos) / agingNanos);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.api.queues.QueueType;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Always admits staff first, then normal, then priority players, whichever has room.
+ */
+public class FixedOrderScheduler implements QueueScheduler {
+    private static final QueueType[] ORDER = {QueueType.STAFF, QueueType.NORMAL, QueueType.PRIORITY};
+
+    @Override
+    public Optional<QueueType> next(Map<QueueType, Long> waiting) {
+        for (QueueType queueType : ORDER) {
+            if (waiting.containsKey(queueType)) return Optional.of(queueType);
+        }
+        return Optional.empty();
+    }
+}
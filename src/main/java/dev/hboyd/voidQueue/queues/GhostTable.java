@@ -0,0 +1,290 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Compact records of queued players who have disconnected from the proxy, holding their place in the queue until
+ * they reconnect or their place expires.
+ *
+ * <p>A ghost keeps only what is needed to put the player back where they were, in flat arrays indexed by slot, so a
+ * disconnected player pins no connection objects. Ghosts are found by UUID through an open addressing index over the
+ * same arrays, rather than a map of boxed keys. Freed slots are reused before the arrays grow.</p>
+ */
+public final class GhostTable {
+    private static final QueueType[] QUEUE_TYPES = QueueType.values();
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * @param tier        the tier the player was queued in
+     * @param sequence    the order of the player within their tier
+     * @param queuedNanos the {@link System#nanoTime()} the player was queued at
+     * @param disconnectNanos the {@link System#nanoTime()} the player disconnected at
+     */
+    public record Ghost(@NotNull UUID uuid,
+                        @NotNull String username,
+                        @NotNull QueueType queueType,
+                        int tier,
+                        long sequence,
+                        long queuedNanos,
+                        long disconnectNanos) {}
+
+    // Ghost fields, indexed by slot. A slot is in use while it has a username
+    private long[] uuidMost;
+    private long[] uuidLeast;
+    private long[] sequences;
+    private long[] queuedNanos;
+    private long[] disconnectNanos;
+    private byte[] queueTypes;
+    private byte[] tiers;
+    private String[] usernames;
+
+    private int[] freeSlots;
+    private int freeCount;
+    // Slots below this have been handed out at least once
+    private int usedSlots;
+
+    // Slot of each ghost, found by linear probing from the hash of its UUID. Kept at most half full
+    private int[] index;
+    private int indexMask;
+
+    private final int[] counts;
+    private int size;
+
+    public GhostTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, initialCapacity));
+        if (capacity < initialCapacity) capacity <<= 1;
+
+        this.counts = new int[QUEUE_TYPES.length];
+        allocate(capacity);
+    }
+
+    /**
+     * Adds a ghost for a player.
+     *
+     * @throws IllegalArgumentException if the player already has a ghost
+     */
+    public synchronized void add(@NotNull UUID uuid,
+                                 @NotNull String username,
+                                 @NotNull QueueType queueType,
+                                 int tier,
+                                 long sequence,
+                                 long queuedNanos,
+                                 long disconnectNanos) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        if (find(most, least) >= 0) throw new IllegalArgumentException("Player already has a ghost");
+
+        if (size == usernames.length) grow();
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : usedSlots++;
+        uuidMost[slot] = most;
+        uuidLeast[slot] = least;
+        sequences[slot] = sequence;
+        this.queuedNanos[slot] = queuedNanos;
+        this.disconnectNanos[slot] = disconnectNanos;
+        queueTypes[slot] = (byte) queueType.ordinal();
+        tiers[slot] = (byte) tier;
+        usernames[slot] = username;
+
+        // Probing for the ghost again is cheaper than carrying the insertion point through a possible grow
+        index[~find(most, least)] = slot;
+        counts[queueType.ordinal()]++;
+        size++;
+    }
+
+    public synchronized Optional<Ghost> get(@NotNull UUID uuid) {
+        int position = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return position < 0 ? Optional.empty() : Optional.of(toGhost(index[position]));
+    }
+
+    public synchronized boolean contains(@NotNull UUID uuid) {
+        return find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+
+    public synchronized Optional<Ghost> remove(@NotNull UUID uuid) {
+        int position = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (position < 0) return Optional.empty();
+
+        Ghost ghost = toGhost(index[position]);
+        release(position);
+        return Optional.of(ghost);
+    }
+
+    /**
+     * Removes a player's ghost, only if it was left by the disconnect at the given time.
+     */
+    public synchronized Optional<Ghost> remove(@NotNull UUID uuid, long disconnectNanos) {
+        int position = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (position < 0 || this.disconnectNanos[index[position]] != disconnectNanos) return Optional.empty();
+
+        Ghost ghost = toGhost(index[position]);
+        release(position);
+        return Optional.of(ghost);
+    }
+
+    /**
+     * Removes every ghost of a queue type in a single pass.
+     *
+     * @return the removed ghosts
+     */
+    public synchronized List<Ghost> removeAll(@NotNull QueueType queueType) {
+        List<Ghost> removed = new ArrayList<>(counts[queueType.ordinal()]);
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (usernames[slot] == null || queueTypes[slot] != queueType.ordinal()) continue;
+
+            removed.add(toGhost(slot));
+            release(find(uuidMost[slot], uuidLeast[slot]));
+        }
+        return removed;
+    }
+
+    /**
+     * @return the ghosts of a queue type, in the order they were queued in
+     */
+    public synchronized List<Ghost> getGhosts(@NotNull QueueType queueType) {
+        List<Ghost> ghosts = new ArrayList<>(counts[queueType.ordinal()]);
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (usernames[slot] != null && queueTypes[slot] == queueType.ordinal()) ghosts.add(toGhost(slot));
+        }
+
+        ghosts.sort(Comparator.comparingInt(Ghost::tier).reversed().thenComparingLong(Ghost::sequence));
+        return ghosts;
+    }
+
+    public synchronized int size(@NotNull QueueType queueType) {
+        return counts[queueType.ordinal()];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private Ghost toGhost(int slot) {
+        return new Ghost(new UUID(uuidMost[slot], uuidLeast[slot]),
+                usernames[slot],
+                QUEUE_TYPES[queueTypes[slot]],
+                tiers[slot],
+                sequences[slot],
+                queuedNanos[slot],
+                disconnectNanos[slot]);
+    }
+
+    /**
+     * @return the index position holding the UUID's slot, or the bitwise complement of the empty position it would
+     * be placed at
+     */
+    private int find(long most, long least) {
+        int position = hash(most, least) & indexMask;
+        while (true) {
+            int slot = index[position];
+            if (slot == EMPTY) return ~position;
+            if (uuidMost[slot] == most && uuidLeast[slot] == least) return position;
+
+            position = (position + 1) & indexMask;
+        }
+    }
+
+    // Frees the slot held at an index position, shifting back any later ghosts that probed past it
+    private void release(int position) {
+        int slot = index[position];
+        counts[queueTypes[slot]]--;
+        size--;
+        usernames[slot] = null;
+        freeSlots[freeCount++] = slot;
+
+        int gap = position;
+        int next = position;
+        while (true) {
+            next = (next + 1) & indexMask;
+            int nextSlot = index[next];
+            if (nextSlot == EMPTY) break;
+
+            // Ghosts whose probe started at or before the gap would no longer be found past it
+            int home = hash(uuidMost[nextSlot], uuidLeast[nextSlot]) & indexMask;
+            if (((next - home) & indexMask) >= ((next - gap) & indexMask)) {
+                index[gap] = nextSlot;
+                gap = next;
+            }
+        }
+        index[gap] = EMPTY;
+    }
+
+    private void allocate(int capacity) {
+        uuidMost = new long[capacity];
+        uuidLeast = new long[capacity];
+        sequences = new long[capacity];
+        queuedNanos = new long[capacity];
+        disconnectNanos = new long[capacity];
+        queueTypes = new byte[capacity];
+        tiers = new byte[capacity];
+        usernames = new String[capacity];
+        freeSlots = new int[capacity];
+        index = new int[capacity * 2];
+        Arrays.fill(index, EMPTY);
+        indexMask = index.length - 1;
+    }
+
+    // Only called when every slot is in use, so no slots are free and all of them are copied
+    private void grow() {
+        int capacity = usernames.length * 2;
+        uuidMost = Arrays.copyOf(uuidMost, capacity);
+        uuidLeast = Arrays.copyOf(uuidLeast, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        queuedNanos = Arrays.copyOf(queuedNanos, capacity);
+        disconnectNanos = Arrays.copyOf(disconnectNanos, capacity);
+        queueTypes = Arrays.copyOf(queueTypes, capacity);
+        tiers = Arrays.copyOf(tiers, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        freeSlots = new int[capacity];
+
+        index = new int[capacity * 2];
+        Arrays.fill(index, EMPTY);
+        indexMask = index.length - 1;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            index[~find(uuidMost[slot], uuidLeast[slot])] = slot;
+        }
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static int hash(long most, long least) {
+        long h = most ^ Long.rotateLeft(least, 32);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
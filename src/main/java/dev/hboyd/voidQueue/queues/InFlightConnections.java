@@ -0,0 +1,146 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.utils.HashedTimerWheel;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Table of players that have been routed to a server but have not finished connecting to it.
+ *
+ * <p>Every connection is given a deadline. Connections are resolved when the player connects or is kicked,
+ * otherwise they expire through a {@link HashedTimerWheel} once their deadline passes.</p>
+ */
+public class InFlightConnections {
+    private static final long TICK_NANOS = Duration.ofMillis(100).toNanos();
+    private static final int WHEEL_SIZE = 512;
+
+    public record InFlightConnection(@NotNull TrackedPlayer trackedPlayer,
+                                     @NotNull RegisteredServer server,
+                                     @NotNull QueueType queueType,
+                                     long deadlineNanos) {}
+
+    private final ConcurrentHashMap<UUID, Entry> connections;
+    private final Map<QueueType, AtomicInteger> queueTypeCounts;
+    private final HashedTimerWheel<Entry> deadlines;
+    private final long connectTimeoutNanos;
+
+    public InFlightConnections(Duration connectTimeout) {
+        this.connections = new ConcurrentHashMap<>();
+        this.queueTypeCounts = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) queueTypeCounts.put(queueType, new AtomicInteger());
+
+        this.deadlines = new HashedTimerWheel<>(TICK_NANOS, WHEEL_SIZE, System.nanoTime());
+        this.connectTimeoutNanos = connectTimeout.toNanos();
+    }
+
+    /**
+     * Adds a connection to the table, replacing any previous connection for the player.
+     *
+     * @return the replaced connection, if any
+     */
+    public Optional<InFlightConnection> add(@NotNull TrackedPlayer trackedPlayer, @NotNull RegisteredServer server) {
+        InFlightConnection connection = new InFlightConnection(trackedPlayer,
+                server,
+                trackedPlayer.getQueuePermissionType(),
+                System.nanoTime() + connectTimeoutNanos);
+
+        Entry entry = new Entry(connection);
+        queueTypeCounts.get(connection.queueType()).incrementAndGet();
+        entry.timeout = deadlines.schedule(entry, connection.deadlineNanos());
+
+        Entry replaced = connections.put(trackedPlayer.getPlayer().getUniqueId(), entry);
+        if (replaced == null) return Optional.empty();
+
+        release(replaced);
+        return Optional.of(replaced.connection);
+    }
+
+    /**
+     * Removes a player's connection from the table, as it has either completed or failed.
+     */
+    public Optional<InFlightConnection> resolve(@NotNull UUID uuid) {
+        Entry entry = connections.remove(uuid);
+        if (entry == null) return Optional.empty();
+
+        release(entry);
+        return Optional.of(entry.connection);
+    }
+
+    /**
+     * Removes every connection whose deadline has passed, passing each to the consumer.
+     */
+    public void expire(Consumer<InFlightConnection> onExpired) {
+        List<InFlightConnection> expired = new ArrayList<>();
+        deadlines.advance(System.nanoTime(), entry -> {
+            // The wheel has already unlinked the entry, so a concurrent resolve will not decrement the count
+            queueTypeCounts.get(entry.connection.queueType()).decrementAndGet();
+
+            UUID uuid = entry.connection.trackedPlayer().getPlayer().getUniqueId();
+            if (connections.remove(uuid, entry)) expired.add(entry.connection);
+        });
+
+        // Handled outside the wheel's lock as handlers may requeue or reconnect the player
+        expired.forEach(onExpired);
+    }
+
+    public boolean contains(@NotNull UUID uuid) {
+        return connections.containsKey(uuid);
+    }
+
+    public int getCount(@NotNull QueueType queueType) {
+        return queueTypeCounts.get(queueType).get();
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    private void release(Entry entry) {
+        if (deadlines.cancel(entry.timeout))
+            queueTypeCounts.get(entry.connection.queueType()).decrementAndGet();
+    }
+
+    private static final class Entry {
+        private final InFlightConnection connection;
+        private HashedTimerWheel.Timeout<Entry> timeout;
+
+        private Entry(InFlightConnection connection) {
+            this.connection = connection;
+        }
+    }
+}
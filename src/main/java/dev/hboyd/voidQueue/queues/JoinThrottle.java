@@ -0,0 +1,173 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.ResultedEvent;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
+import com.velocitypowered.api.proxy.Player;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.utils.SlidingCountMinSketch;
+import net.kyori.adventure.text.Component;
+import org.slf4j.Logger;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate of joins from each IP address and from each /24 (IPv4) or /48 (IPv6) subnet.
+ *
+ * <p>Joins are counted in fixed size count-min sketches, so memory does not grow with the number of distinct
+ * addresses during a flood. Joins are rejected at pre-login, before any permissions are loaded or limbo world sent.
+ * Players reconnecting to a position they already hold in the queue are never throttled.</p>
+ *
+ * <p>Every join is counted, whatever UUID it claims. The UUID is not authenticated at pre-login, so a throttled join
+ * claiming a queued player's UUID is only let through to login, where it is rejected unless the authenticated player
+ * really holds a position.</p>
+ */
+public class JoinThrottle {
+    // Separates IPv4 and IPv6 keys, as both are hashed into the same sketches
+    private static final long IPV4_TAG = 1L << 62;
+    // Bounds the joins waiting for authentication, so joins spoofing queued UUIDs cannot grow it without limit
+    private static final int MAX_DEFERRED = 1024;
+    private static final long DEFERRED_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private record Deferred(long nanos, boolean addressLimited) {}
+
+    private final Logger logger;
+    private final QueueStore queueStore;
+    private final PlayerTracker playerTracker;
+    private final VoidQueueConfig.JoinThrottle config;
+
+    private final SlidingCountMinSketch addressJoins;
+    private final SlidingCountMinSketch subnetJoins;
+    private final LongAdder addressRejections;
+    private final LongAdder subnetRejections;
+    // Throttled joins claiming to hold a position, by connection
+    private final ConcurrentHashMap<InetSocketAddress, Deferred> deferred;
+
+    public JoinThrottle(Logger logger,
+                        QueueStore queueStore,
+                        PlayerTracker playerTracker,
+                        VoidQueueConfig.JoinThrottle config) {
+        this.logger = logger;
+        this.queueStore = queueStore;
+        this.playerTracker = playerTracker;
+        this.config = config;
+
+        long now = System.nanoTime();
+        this.addressJoins = new SlidingCountMinSketch(config.sketchWidth, config.sketchDepth, config.window, config.windowSlots, now);
+        this.subnetJoins = new SlidingCountMinSketch(config.sketchWidth, config.sketchDepth, config.window, config.windowSlots, now);
+        this.addressRejections = new LongAdder();
+        this.subnetRejections = new LongAdder();
+        this.deferred = new ConcurrentHashMap<>();
+    }
+
+    public long getAddressRejectionCount() {
+        return addressRejections.sum();
+    }
+
+    public long getSubnetRejectionCount() {
+        return subnetRejections.sum();
+    }
+
+    @Subscribe(order = PostOrder.FIRST)
+    private void onPreLogin(PreLoginEvent event) {
+        if (!config.enabled || !event.getResult().isAllowed()) return;
+
+        InetSocketAddress remoteAddress = event.getConnection().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) return;
+        InetAddress address = remoteAddress.getAddress();
+
+        long now = System.nanoTime();
+        int addressCount = addressJoins.increment(addressKey(address), now);
+        int subnetCount = subnetJoins.increment(subnetKey(address), now);
+
+        boolean addressLimited = addressCount > config.addressLimit;
+        if (!addressLimited && subnetCount <= config.subnetLimit) return;
+
+        UUID uuid = event.getUniqueId();
+        if (uuid != null && holdsPosition(uuid) && defer(remoteAddress, new Deferred(now, addressLimited))) return;
+
+        if (addressLimited) addressRejections.increment();
+        else subnetRejections.increment();
+
+        logger.debug("Throttling join of {} from {}", event.getUsername(), address.getHostAddress());
+        event.setResult(PreLoginEvent.PreLoginComponentResult.denied(Component.translatable("queue.errors.join-throttled")));
+    }
+
+    // Settles joins let through pre-login on an unauthenticated claim to hold a position
+    @Subscribe(order = PostOrder.FIRST)
+    private void onLogin(LoginEvent event) {
+        Player player = event.getPlayer();
+        Deferred join = deferred.remove(player.getRemoteAddress());
+        if (join == null || !event.getResult().isAllowed() || holdsPosition(player.getUniqueId())) return;
+
+        if (join.addressLimited()) addressRejections.increment();
+        else subnetRejections.increment();
+        logger.debug("Throttling join of {}, who did not hold the queue position they claimed", player.getUsername());
+        event.setResult(ResultedEvent.ComponentResult.denied(Component.translatable("queue.errors.join-throttled")));
+    }
+
+    private boolean defer(InetSocketAddress remoteAddress, Deferred join) {
+        // Joins that never reached login are only cleared out once the map fills up
+        if (deferred.size() >= MAX_DEFERRED)
+            deferred.values().removeIf(other -> join.nanos() - other.nanos() >= DEFERRED_TIMEOUT_NANOS);
+        if (deferred.size() >= MAX_DEFERRED) return false;
+
+        deferred.put(remoteAddress, join);
+        return true;
+    }
+
+    private boolean holdsPosition(UUID uuid) {
+        if (queueStore.hasGhost(uuid)) return true;
+
+        Optional<TrackedPlayer> trackedPlayer = playerTracker.getQueuePlayer(uuid);
+        return trackedPlayer.isPresent() && queueStore.isQueued(trackedPlayer.get());
+    }
+
+    private static long addressKey(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) return IPV4_TAG | (ByteBuffer.wrap(bytes).getInt() & 0xFFFFFFFFL);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return buffer.getLong() * 31 + buffer.getLong();
+    }
+
+    private static long subnetKey(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) return IPV4_TAG | ((ByteBuffer.wrap(bytes).getInt() & 0xFFFFFFFFL) >>> 8);
+
+        // Top 48 bits of the address
+        return ByteBuffer.wrap(bytes).getLong() >>> 16;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.utils.AhoCorasickMatcher;
+import dev.hboyd.voidQueue.utils.TranslationUtil;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classifies server kick reasons into the configured categories.
+ *
+ * <p>All category patterns are compiled once into a single case-insensitive automaton, so a kick reason is
+ * rendered and scanned once no matter how many patterns are configured. When a reason matches several
+ * categories the one configured first wins.</p>
+ */
+public class KickClassifier {
+    public static final String UNCLASSIFIED = "unclassified";
+
+    /**
+     * @param index the index of the category in the configured categories, or the category count if unclassified
+     */
+    public record Classification(int index, @NotNull String category, @NotNull RetryPolicy retryPolicy) {}
+
+    private final AhoCorasickMatcher matcher;
+    // Indexed by category, with the final entry used for unclassified kicks
+    private final Classification[] classifications;
+    private final LongAdder[] classificationCounts;
+
+    public KickClassifier(List<VoidQueueConfig.KickCategory> categories, RetryPolicy unclassifiedPolicy) {
+        if (categories.size() > AhoCorasickMatcher.MAX_GROUPS)
+            throw new IllegalArgumentException("At most " + AhoCorasickMatcher.MAX_GROUPS + " kick categories are supported");
+
+        AhoCorasickMatcher.Builder builder = AhoCorasickMatcher.builder();
+        this.classifications = new Classification[categories.size() + 1];
+        this.classificationCounts = new LongAdder[categories.size() + 1];
+
+        for (int i = 0; i < categories.size(); i++) {
+            VoidQueueConfig.KickCategory category = categories.get(i);
+            for (String pattern : category.patterns) {
+                if (!pattern.isEmpty()) builder.addPattern(pattern, i);
+            }
+
+            classifications[i] = new Classification(i, category.name, category.retryPolicy);
+            classificationCounts[i] = new LongAdder();
+        }
+
+        classifications[categories.size()] = new Classification(categories.size(), UNCLASSIFIED, unclassifiedPolicy);
+        classificationCounts[categories.size()] = new LongAdder();
+
+        this.matcher = builder.build();
+    }
+
+    public Classification classify(@Nullable Component kickReason) {
+        int index = classifications.length - 1;
+        if (kickReason != null) {
+            long matched = matcher.match(TranslationUtil.toString(kickReason));
+            if (matched != 0L) index = Long.numberOfTrailingZeros(matched);
+        }
+
+        classificationCounts[index].increment();
+        return classifications[index];
+    }
+
+    /**
+     * Returns the number of kicks classified into each category since startup, keyed by category name.
+     */
+    public Map<String, Long> getClassificationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < classifications.length; i++) {
+            counts.merge(classifications[i].category(), classificationCounts[i].sum(), Long::sum);
+        }
+        return counts;
+    }
+}
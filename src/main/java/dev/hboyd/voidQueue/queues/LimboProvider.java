@@ -0,0 +1,126 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.plugin.PluginContainer;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import net.elytrium.limboapi.api.Limbo;
+import net.elytrium.limboapi.api.LimboFactory;
+import net.elytrium.limboapi.api.LimboSessionHandler;
+import net.elytrium.limboapi.api.chunk.VirtualWorld;
+import net.elytrium.limboapi.api.event.LimboSpawnEvent;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the limbo world queued players are held in, once, and shares it between everything that spawns players.
+ *
+ * <p>Each spawn is timed from the spawn request until LimboAPI reports the player as spawned, so the cost of each
+ * queued player can be tracked.</p>
+ */
+public class LimboProvider {
+    public record SpawnStats(long spawns, long totalNanos) {
+        public double averageMillis() {
+            return spawns == 0 ? 0 : totalNanos / (double) spawns / 1_000_000;
+        }
+    }
+
+    private final Logger logger;
+    private final Limbo limbo;
+
+    // Time each pending spawn was requested at
+    private final ConcurrentHashMap<UUID, Long> pendingSpawns;
+    private final LongAdder spawns;
+    private final LongAdder spawnNanos;
+
+    public LimboProvider(Logger logger, ProxyServer proxyServer, VoidQueueConfig.LimboWorld limboConfig) {
+        this.logger = logger;
+
+        LimboFactory limboFactory = (LimboFactory) proxyServer.getPluginManager()
+                .getPlugin("limboapi")
+                .flatMap(PluginContainer::getInstance)
+                .orElseThrow();
+
+        VirtualWorld queueWorld = limboFactory.createVirtualWorld(
+                limboConfig.dimension,
+                limboConfig.spawnX,
+                limboConfig.spawnY,
+                limboConfig.spawnZ,
+                limboConfig.spawnYaw,
+                limboConfig.spawnPitch);
+
+        this.limbo = limboFactory.createLimbo(queueWorld)
+                .setName("VoidQueue")
+                .setWorldTime(limboConfig.worldTime)
+                .setDoDaylightCycle(false)
+                .setGameMode(limboConfig.gameMode)
+                .setViewDistance(limboConfig.viewDistance)
+                .setSimulationDistance(limboConfig.simulationDistance);
+
+        this.pendingSpawns = new ConcurrentHashMap<>();
+        this.spawns = new LongAdder();
+        this.spawnNanos = new LongAdder();
+    }
+
+    public Limbo getLimbo() {
+        return limbo;
+    }
+
+    /**
+     * Spawns a player into the shared limbo, measuring the cost of the spawn.
+     */
+    public void spawnPlayer(@NotNull Player player, @NotNull LimboSessionHandler sessionHandler) {
+        pendingSpawns.put(player.getUniqueId(), System.nanoTime());
+        limbo.spawnPlayer(player, sessionHandler);
+    }
+
+    public SpawnStats getSpawnStats() {
+        return new SpawnStats(spawns.sum(), spawnNanos.sum());
+    }
+
+    @Subscribe
+    private void onLimboSpawn(LimboSpawnEvent event) {
+        Player player = event.limboPlayer().getProxyPlayer();
+        Long startNanos = pendingSpawns.remove(player.getUniqueId());
+        if (startNanos == null) return;
+
+        long nanos = System.nanoTime() - startNanos;
+        spawns.increment();
+        spawnNanos.add(nanos);
+        logger.debug("Spawned {} in limbo in {} ms", player.getUsername(), nanos / 1_000_000);
+    }
+
+    @Subscribe
+    private void onDisconnect(DisconnectEvent event) {
+        pendingSpawns.remove(event.getPlayer().getUniqueId());
+    }
+}
@@ -37,51 +37,94 @@ import net.elytrium.limboapi.api.event.LimboSpawnEvent;
 import net.elytrium.limboapi.api.player.LimboPlayer;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
-import net.luckperms.api.cacheddata.CachedPermissionData;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.debug.FlightRecorder;
 import dev.hboyd.voidQueue.utils.LuckPermsPermissionUtil;
+import dev.hboyd.voidQueue.utils.UsernameIndex;
 
-import java.time.Instant;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class PlayerTracker {
     private final Logger logger;
+    private final FlightRecorder flightRecorder;
 
     private final ConcurrentHashMap<UUID, TrackedPlayer> trackedPlayers;
+    private final UsernameIndex<TrackedPlayer> usernameIndex;
+    // Queue type each in-game player is counted against, so in-game counts never scan the tracked players
+    private final ConcurrentHashMap<UUID, QueueType> inGamePlayers;
+    private final Map<QueueType, AtomicInteger> inGameCounts;
 
     private final LuckPerms luckPerms;
 
-    private final @NotNull String priorityPermission;
-    private final @NotNull String staffPermission;
+    private final QueueTiers queueTiers;
 
+    private final Consumer<TrackedPlayer> disconnectCallback;
+
+    /**
+     * @param disconnectCallback called after a tracked player disconnects and their disconnect has been recorded
+     */
     public PlayerTracker(Logger logger,
-                         @NotNull String priorityPermission,
-                         @NotNull String staffPermission) {
+                         QueueTiers queueTiers,
+                         Consumer<TrackedPlayer> disconnectCallback,
+                         FlightRecorder flightRecorder) {
         this.logger = logger;
+        this.flightRecorder = flightRecorder;
+        this.disconnectCallback = disconnectCallback;
 
         trackedPlayers = new ConcurrentHashMap<>();
+        usernameIndex = new UsernameIndex<>();
+        inGamePlayers = new ConcurrentHashMap<>();
+        inGameCounts = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) inGameCounts.put(queueType, new AtomicInteger());
 
         this.luckPerms = LuckPermsProvider.get();
 
-        this.priorityPermission = priorityPermission;
-        this.staffPermission = staffPermission;
-
+        this.queueTiers = queueTiers;
 
         luckPerms.getEventBus().subscribe(UserDataRecalculateEvent.class, this::onUserDataRecalculate);
     }
 
     public int getInGameCount(QueueType queueType) {
-        return (int) trackedPlayers.values().stream()
-                .filter(TrackedPlayer::isInGame)
-                .filter(trackedPlayer -> trackedPlayer.getQueuePermissionType() == queueType)
-                .count();
+        return inGameCounts.get(queueType).get();
+    }
+
+    /**
+     * Counts a player as in-game against a queue type, or as no longer in-game if the queue type is null.
+     */
+    private void countInGame(UUID uuid, @Nullable QueueType queueType) {
+        inGamePlayers.compute(uuid, (key, previous) -> {
+            if (previous != null) inGameCounts.get(previous).decrementAndGet();
+            if (queueType != null) inGameCounts.get(queueType).incrementAndGet();
+            return queueType;
+        });
+    }
+
+    private void setConnectionState(TrackedPlayer trackedPlayer, TrackedPlayer.@Nullable ConnectionState connectionState) {
+        flightRecorder.recordState(trackedPlayer, trackedPlayer.getConnectionState().orElse(null), connectionState);
+        trackedPlayer.setConnectionState(connectionState);
+    }
+
+    private void setQueuePermissionType(TrackedPlayer trackedPlayer, QueueType queueType) {
+        trackedPlayer.setQueuePermissionType(queueType);
+        // Players already in-game move their slot to their new queue type
+        inGamePlayers.computeIfPresent(trackedPlayer.getPlayer().getUniqueId(), (key, previous) -> {
+            inGameCounts.get(previous).decrementAndGet();
+            inGameCounts.get(queueType).incrementAndGet();
+            return queueType;
+        });
     }
 
     /**
@@ -105,30 +148,58 @@ public class PlayerTracker {
      */
     public CompletableFuture<TrackedPlayer> trackPlayer(Player player, TrackedPlayer.ConnectionState connectionState) {
         return LuckPermsPermissionUtil.getUserAsync(player.getUniqueId()).thenApply(user -> {
-            QueueType queueType = mapPermissionsToQueueType(user.getCachedData().getPermissionData());
+            int tier = queueTiers.resolve(player.getUsername(), user.getCachedData());
+            QueueType queueType = queueTiers.getTier(tier).queueType();
 
             if (trackedPlayers.containsKey(player.getUniqueId()))  {
                 TrackedPlayer oldQueuePlayer = trackedPlayers.get(player.getUniqueId());
-                oldQueuePlayer.setQueuePermissionType(queueType);
+                setQueuePermissionType(oldQueuePlayer, queueType);
+                oldQueuePlayer.setTier(tier);
                 oldQueuePlayer.clearLimboPlayer();
+                // The player may have changed their username since they were last seen
+                usernameIndex.remove(oldQueuePlayer.getPlayer().getUsername(), oldQueuePlayer);
                 oldQueuePlayer.setPlayer(player);
-                oldQueuePlayer.setConnectionState(connectionState);
+                usernameIndex.put(player.getUsername(), oldQueuePlayer);
+                setConnectionState(oldQueuePlayer, connectionState);
 
                 return oldQueuePlayer;
             }
 
             TrackedPlayer trackedPlayer = new TrackedPlayer(player, queueType, connectionState);
+            trackedPlayer.setTier(tier);
+            flightRecorder.recordState(trackedPlayer, null, connectionState);
             trackedPlayers.put(player.getUniqueId(), trackedPlayer);
+            usernameIndex.put(player.getUsername(), trackedPlayer);
             return trackedPlayer;
         });
     }
 
     public void unTrackPlayer(UUID uuid) {
-        trackedPlayers.remove(uuid);
+        TrackedPlayer trackedPlayer = trackedPlayers.remove(uuid);
+        if (trackedPlayer != null) usernameIndex.remove(trackedPlayer.getPlayer().getUsername(), trackedPlayer);
     }
 
+    /**
+     * Untracks a player, only if they are still tracked as the given tracked player.
+     */
     public void unTrackPlayer(TrackedPlayer trackedPlayer) {
-        trackedPlayers.remove(trackedPlayer.getPlayer().getUniqueId());
+        if (trackedPlayers.remove(trackedPlayer.getPlayer().getUniqueId(), trackedPlayer))
+            usernameIndex.remove(trackedPlayer.getPlayer().getUsername(), trackedPlayer);
+    }
+
+    /**
+     * Looks up a tracked player by username, ignoring case.
+     */
+    public Optional<TrackedPlayer> getQueuePlayer(String username) {
+        return usernameIndex.get(username);
+    }
+
+    /**
+     * Returns up to {@code limit} tracked players whose username starts with the prefix, ignoring case,
+     * and which match the filter.
+     */
+    public List<TrackedPlayer> findByUsernamePrefix(String prefix, int limit, Predicate<TrackedPlayer> filter) {
+        return usernameIndex.findByPrefix(prefix, limit, filter);
     }
 
     public boolean isPlayerTracked(UUID uuid) {
@@ -143,12 +214,6 @@ public class PlayerTracker {
         return Optional.ofNullable(trackedPlayers.get(uuid));
     }
 
-    private QueueType mapPermissionsToQueueType(CachedPermissionData permissionData) {
-        if (permissionData.checkPermission(staffPermission).asBoolean()) return QueueType.STAFF;
-        if (permissionData.checkPermission(priorityPermission).asBoolean()) return QueueType.PRIORITY;
-        return QueueType.NORMAL;
-    }
-
 
     @Subscribe
     private void onPreLogin(PreLoginEvent event) {
@@ -157,7 +222,7 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.PRE_LOGIN);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.PRE_LOGIN);
     }
 
     @Subscribe
@@ -166,7 +231,8 @@ public class PlayerTracker {
         if (trackedPlayer == null) return;
 
         trackedPlayer.setLimboPlayer(event.limboPlayer());
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.LIMBO_JOIN);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.LIMBO_JOIN);
+        countInGame(trackedPlayer.getPlayer().getUniqueId(), null);
     }
 
     @Subscribe
@@ -175,7 +241,7 @@ public class PlayerTracker {
         if (trackedPlayer == null) return;
 
         trackedPlayer.setLimboPlayer(event.limboPlayer());
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.LIMBO_LEAVE);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.LIMBO_LEAVE);
     }
 
     @Subscribe
@@ -183,7 +249,7 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.LOGIN);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.LOGIN);
     }
 
     @Subscribe
@@ -191,7 +257,7 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.POST_LOGIN);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.POST_LOGIN);
     }
 
     @Subscribe
@@ -199,7 +265,7 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.SERVER_PRE_CONNECT);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.SERVER_PRE_CONNECT);
     }
 
     @Subscribe
@@ -207,7 +273,8 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.SERVER_CONNECT);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.SERVER_CONNECT);
+        countInGame(trackedPlayer.getPlayer().getUniqueId(), trackedPlayer.getQueuePermissionType());
     }
 
     @Subscribe
@@ -215,7 +282,7 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.POST_LOGIN);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.POST_LOGIN);
     }
 
     @Subscribe
@@ -223,7 +290,7 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.player().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.PRE_TRANSFER);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.PRE_TRANSFER);
     }
 
     @Subscribe
@@ -231,11 +298,14 @@ public class PlayerTracker {
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
-        trackedPlayer.setConnectionState(TrackedPlayer.ConnectionState.SERVER_KICKED);
+        setConnectionState(trackedPlayer, TrackedPlayer.ConnectionState.SERVER_KICKED);
+        // A failed connect leaves the player on their current server, if any
+        if (!event.kickedDuringServerConnect()) countInGame(trackedPlayer.getPlayer().getUniqueId(), null);
     }
 
     @Subscribe
     private void onDisconnect(DisconnectEvent event) {
+        countInGame(event.getPlayer().getUniqueId(), null);
         TrackedPlayer trackedPlayer = trackedPlayers.get(event.getPlayer().getUniqueId());
         if (trackedPlayer == null) return;
 
@@ -244,8 +314,9 @@ public class PlayerTracker {
                 .map(ServerConnection::getServer)
                 .orElse(null);
 
-        trackedPlayer.setLastDisconnect(new TrackedPlayer.Disconnect(Instant.now(), lastServer));
-        trackedPlayer.clearConnectionState();
+        trackedPlayer.setLastDisconnect(new TrackedPlayer.Disconnect(System.nanoTime(), lastServer));
+        setConnectionState(trackedPlayer, null);
+        disconnectCallback.accept(trackedPlayer);
     }
 
     private void onUserDataRecalculate(UserDataRecalculateEvent event) {
@@ -253,8 +324,10 @@ public class PlayerTracker {
         if (trackedPlayer == null) return;
 
         LuckPermsPermissionUtil.getUserAsync(trackedPlayer.getPlayer().getUniqueId()).thenAccept(user -> {
-            QueueType queueType = mapPermissionsToQueueType(user.getCachedData().getPermissionData());
-            trackedPlayer.setQueuePermissionType(queueType);
+            // Players already queued keep their place until they are next queued
+            int tier = queueTiers.resolve(trackedPlayer.getPlayer().getUsername(), user.getCachedData());
+            trackedPlayer.setTier(tier);
+            setQueuePermissionType(trackedPlayer, queueTiers.getTier(tier).queueType());
         });
     }
 
@@ -0,0 +1,159 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.event.EventManager;
+import dev.hboyd.voidQueue.api.events.QueueAdvancedEvent;
+import dev.hboyd.voidQueue.api.queues.QueuePlayer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Posts a single {@link QueueAdvancedEvent} per queue movement, built from the players added to and removed from the
+ * queues since the previous event.
+ *
+ * <p>Only the players who changed are looked at, so publishing costs nothing while the queues are idle. Positions
+ * are read from queue snapshots: the current one for players who joined, and the one the previous event was built
+ * from for players who left. Position changes of everyone else are found by comparing the two snapshots, only once a
+ * listener asks for them.</p>
+ */
+public class QueueEventPublisher {
+    private record Change(UUID uuid, boolean enqueued) {}
+
+    private final EventManager eventManager;
+    private final dev.hboyd.voidQueue.api.queues.VoidQueue voidQueue;
+    private final Supplier<QueueSnapshot> snapshotSupplier;
+
+    private final ConcurrentLinkedQueue<Change> changes;
+    // Players who left the queue by connecting to a server, used to tell admissions from other removals
+    private final Set<UUID> admitted;
+    // Players who joined after the latest snapshot was captured, reported once a snapshot includes them
+    private final Set<UUID> unseen;
+    private QueueSnapshot previous;
+
+    public QueueEventPublisher(EventManager eventManager,
+                               dev.hboyd.voidQueue.api.queues.VoidQueue voidQueue,
+                               Supplier<QueueSnapshot> snapshotSupplier) {
+        this.eventManager = eventManager;
+        this.voidQueue = voidQueue;
+        this.snapshotSupplier = snapshotSupplier;
+
+        this.changes = new ConcurrentLinkedQueue<>();
+        this.admitted = ConcurrentHashMap.newKeySet();
+        this.unseen = new LinkedHashSet<>();
+        this.previous = snapshotSupplier.get();
+    }
+
+    /**
+     * Records that a player is leaving the queue by connecting to a server. Must be called before the player is
+     * removed from the queue.
+     */
+    public void recordAdmitted(@NotNull UUID uuid) {
+        admitted.add(uuid);
+    }
+
+    /**
+     * Records that a player was added to, or removed from, a queue.
+     */
+    public void recordChange(@NotNull UUID uuid, boolean enqueued) {
+        changes.add(new Change(uuid, enqueued));
+    }
+
+    public synchronized void publish() {
+        if (changes.isEmpty() && unseen.isEmpty()) return;
+
+        Set<UUID> joined = new LinkedHashSet<>(unseen);
+        unseen.clear();
+        // Whether each player who left was admitted
+        Map<UUID, Boolean> left = new LinkedHashMap<>();
+
+        Change change;
+        while ((change = changes.poll()) != null) {
+            if (change.enqueued()) {
+                joined.add(change.uuid());
+            } else {
+                // A player who joins and leaves between events is only reported if they were queued before
+                joined.remove(change.uuid());
+                left.put(change.uuid(), admitted.remove(change.uuid()));
+            }
+        }
+
+        QueueSnapshot current = snapshotSupplier.get();
+        QueueSnapshot last = previous;
+
+        List<QueuePlayer> enqueued = new ArrayList<>(joined.size());
+        for (UUID uuid : joined) {
+            Optional<QueueSnapshot.Entry> entry = current.getEntry(uuid);
+            if (entry.isPresent()) enqueued.add(entry.get());
+            else unseen.add(uuid);
+        }
+
+        List<QueuePlayer> admittedPlayers = new ArrayList<>();
+        List<QueuePlayer> removed = new ArrayList<>();
+        for (Map.Entry<UUID, Boolean> leaving : left.entrySet()) {
+            Optional<QueueSnapshot.Entry> entry = last.getEntry(leaving.getKey());
+            if (entry.isEmpty()) continue;
+
+            if (leaving.getValue()) admittedPlayers.add(entry.get());
+            else removed.add(entry.get());
+        }
+
+        if (enqueued.isEmpty() && admittedPlayers.isEmpty() && removed.isEmpty()) return;
+        // Only moved on once an event is fired, so position changes are relative to the previous event
+        previous = current;
+
+        eventManager.fireAndForget(new QueueAdvancedEvent(voidQueue,
+                enqueued,
+                admittedPlayers,
+                removed,
+                () -> getPositionChanges(last, current)));
+    }
+
+    private static List<QueueAdvancedEvent.PositionChange> getPositionChanges(QueueSnapshot last, QueueSnapshot current) {
+        List<QueueAdvancedEvent.PositionChange> positionChanges = new ArrayList<>();
+        for (QueueType queueType : QueueType.values()) {
+            for (QueueSnapshot.Entry entry : current.getQueue(queueType)) {
+                Optional<QueueSnapshot.Entry> previous = last.getEntry(entry.uuid());
+                // Players without a previous entry joined, and are listed as enqueued instead
+                if (previous.isEmpty()) continue;
+                if (previous.get().position() == entry.position() && previous.get().queueType() == queueType) continue;
+
+                positionChanges.add(new QueueAdvancedEvent.PositionChange(entry, previous.get().position()));
+            }
+        }
+        return positionChanges;
+    }
+}
@@ -23,51 +23,138 @@
 
 package dev.hboyd.voidQueue.queues;
 
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.player.KickedFromServerEvent;
+import com.velocitypowered.api.event.player.ServerConnectedEvent;
+import com.velocitypowered.api.event.player.ServerPostConnectEvent;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
-import net.elytrium.limboapi.api.LimboServer;
 import net.elytrium.limboapi.api.LimboSessionHandler;
 import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.debug.FlightRecorder;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class QueueRouterService {
     private final Logger logger;
 
-    private Collection<RegisteredServer> servers;
-    private final LimboServer limboServer;
+    private final ServerLoadBalancer serverLoadBalancer;
+    private final ServerHealthMonitor serverHealthMonitor;
+    private final ServerSlotTable serverSlotTable;
+    private final Function<UUID, QueueType> queueTypeResolver;
+    private final LimboProvider limboProvider;
     private final Function<Player, LimboSessionHandler> limboSessionHandlerCreator;
+    private final FlightRecorder flightRecorder;
+
+    // Server each player was last counted against, so every connect/leave is applied exactly once
+    private final ConcurrentHashMap<UUID, RegisteredServer> countedServers;
+    private final InFlightConnections inFlightConnections;
+    private final Consumer<InFlightConnections.InFlightConnection> connectTimeoutHandler;
+    // Players routed to each server, fixed to the servers known on startup so reads need no locking
+    private final Map<RegisteredServer, LongAdder> routedCounts;
 
     public QueueRouterService(Logger logger,
                               Collection<RegisteredServer> servers,
-                              LimboServer limboServer,
-                              Function<Player, LimboSessionHandler> limboSessionHandlerCreator) {
+                              Map<String, Integer> serverWeights,
+                              Map<String, VoidQueueConfig.ServerSlots> serverSlots,
+                              Function<UUID, QueueType> queueTypeResolver,
+                              ServerHealthMonitor serverHealthMonitor,
+                              Duration connectTimeout,
+                              Consumer<InFlightConnections.InFlightConnection> connectTimeoutHandler,
+                              LimboProvider limboProvider,
+                              Function<Player, LimboSessionHandler> limboSessionHandlerCreator,
+                              FlightRecorder flightRecorder) {
         this.logger = logger;
+        this.flightRecorder = flightRecorder;
 
-        this.servers = servers;
-        this.limboServer = limboServer;
+        this.serverLoadBalancer = new ServerLoadBalancer(logger, servers, serverWeights);
+        this.serverSlotTable = new ServerSlotTable(logger, servers, serverSlots);
+        this.queueTypeResolver = queueTypeResolver;
+        this.serverHealthMonitor = serverHealthMonitor;
+        this.limboProvider = limboProvider;
         this.limboSessionHandlerCreator = limboSessionHandlerCreator;
+
+        this.countedServers = new ConcurrentHashMap<>();
+        this.inFlightConnections = new InFlightConnections(connectTimeout);
+        this.connectTimeoutHandler = connectTimeoutHandler;
+
+        Map<RegisteredServer, LongAdder> routedCounts = new HashMap<>();
+        for (RegisteredServer server : servers) routedCounts.put(server, new LongAdder());
+        this.routedCounts = Collections.unmodifiableMap(routedCounts);
+
+        for (RegisteredServer server : servers) {
+            for (Player player : server.getPlayersConnected()) {
+                countedServers.put(player.getUniqueId(), server);
+                serverLoadBalancer.onConnected(server);
+                serverSlotTable.place(player.getUniqueId(), server, queueTypeResolver.apply(player.getUniqueId()));
+            }
+        }
     }
 
     public void sendToLimbo(Player player) {
         if (!player.isActive()) throw new IllegalArgumentException("Player is not online");
 
         logger.info("Attempting to send {} to limbo", player.getUsername()); // TODO: Add name of limbo server we are sending to
-        limboServer.spawnPlayer(player, limboSessionHandlerCreator.apply(player));
+        limboProvider.spawnPlayer(player, limboSessionHandlerCreator.apply(player));
     }
 
-    public void routeToServer(TrackedPlayer trackedPlayer) {
-        RegisteredServer server = getLeastPopServer();
-
-        logger.info("Attempting to connect player {} to {}", trackedPlayer.toString(), server.getServerInfo().getName());
+    /**
+     * Routes a player in limbo to the least loaded healthy server.
+     *
+     * @param trackedPlayer the player to route
+     * @return whether a healthy server was available to route the player to
+     */
+    public boolean routeToServer(TrackedPlayer trackedPlayer) {
         if (trackedPlayer.getLimboPlayer().isEmpty())
             throw new IllegalArgumentException("Cannot route a player who is not connected to limbo");
 
-        trackedPlayer.getLimboPlayer().get().disconnect(server);
+        Optional<RegisteredServer> server = reserveServer(trackedPlayer);
+        if (server.isEmpty()) return false;
 
-        //trackedPlayer.setConnecting(true);
+        trackedPlayer.getLimboPlayer().get().disconnect(server.get());
+        return true;
+    }
+
+    /**
+     * Reserves the least loaded healthy server with room for the player's queue type, for a player who is connecting
+     * without going through limbo.
+     * The player is counted as in-flight until they connect, exactly as if they had been routed from limbo.
+     *
+     * @param trackedPlayer the player to route
+     * @return the server the player should connect to, if a healthy server was available
+     */
+    public Optional<RegisteredServer> reserveServer(TrackedPlayer trackedPlayer) {
+        UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+        QueueType queueType = trackedPlayer.getQueuePermissionType();
+
+        Optional<RegisteredServer> server;
+        // Held so concurrent reservations cannot both take the last slot of a server
+        synchronized (serverSlotTable) {
+            server = serverLoadBalancer.reserve(candidate ->
+                    serverSlotTable.hasRoom(candidate, queueType) && serverHealthMonitor.tryAcquire(candidate));
+            server.ifPresent(reserved -> serverSlotTable.place(uuid, reserved, queueType));
+        }
+        flightRecorder.recordRoute(trackedPlayer, server.orElse(null));
+        if (server.isEmpty()) {
+            logger.warn("No server available to route {} to", trackedPlayer.getPlayer().getUsername());
+            return Optional.empty();
+        }
+
+        logger.info("Attempting to connect player {} to {}", trackedPlayer.getPlayer().getUsername(), server.get().getServerInfo().getName());
+        LongAdder routedCount = routedCounts.get(server.get());
+        if (routedCount != null) routedCount.increment();
+        inFlightConnections.add(trackedPlayer, server.get())
+                .ifPresent(replaced -> serverLoadBalancer.releasePending(replaced.server()));
+        return server;
     }
 
     public void kick(TrackedPlayer trackedPlayer, Component reason) {
@@ -77,18 +164,102 @@ public class QueueRouterService {
         trackedPlayer.getPlayer().disconnect(reason);
     }
 
-    private RegisteredServer getLeastPopServer() {
-        Iterator<RegisteredServer> iterator = servers.iterator();
-        RegisteredServer leastPopServer = iterator.next();
-        int leastPopServerPlayerCount =  leastPopServer.getPlayersConnected().size();
-        while(iterator.hasNext()) {
-            RegisteredServer server = iterator.next();
-            int currentServerPlayerCount = server.getPlayersConnected().size();
-            if (currentServerPlayerCount < leastPopServerPlayerCount) {
-                leastPopServer = server;
-                leastPopServerPlayerCount = currentServerPlayerCount;
-            }
+    /**
+     * Returns whether any server has room for another player of the queue type under its own slot limits.
+     */
+    public boolean hasServerRoom(QueueType queueType) {
+        return serverSlotTable.hasRoom(queueType);
+    }
+
+    /**
+     * Returns whether there is at least one server players could currently be routed to.
+     */
+    public boolean hasAvailableServer() {
+        return serverHealthMonitor.hasAvailableServer();
+    }
+
+    /**
+     * Fails every in-flight connection that has passed its deadline, passing it to the connect timeout handler.
+     */
+    public void expireConnections() {
+        inFlightConnections.expire(connection -> {
+            logger.warn("Connection of {} to {} timed out",
+                    connection.trackedPlayer().getPlayer().getUsername(),
+                    connection.server().getServerInfo().getName());
+
+            serverLoadBalancer.releasePending(connection.server());
+            serverSlotTable.remove(connection.trackedPlayer().getPlayer().getUniqueId(), connection.server());
+            serverHealthMonitor.recordFailure(connection.server());
+            connectTimeoutHandler.accept(connection);
+        });
+    }
+
+    /**
+     * @return the number of players routed to each server since startup
+     */
+    public Map<RegisteredServer, Long> getRoutedCounts() {
+        Map<RegisteredServer, Long> counts = new HashMap<>(routedCounts.size());
+        routedCounts.forEach((server, count) -> counts.put(server, count.sum()));
+        return counts;
+    }
+
+    public InFlightConnections getInFlightConnections() {
+        return inFlightConnections;
+    }
+
+    public ServerLoadBalancer getServerLoadBalancer() {
+        return serverLoadBalancer;
+    }
+
+    public ServerSlotTable getServerSlotTable() {
+        return serverSlotTable;
+    }
+
+    public ServerHealthMonitor getServerHealthMonitor() {
+        return serverHealthMonitor;
+    }
+
+    private void resolveInFlight(UUID uuid) {
+        inFlightConnections.resolve(uuid).ifPresent(connection -> serverLoadBalancer.releasePending(connection.server()));
+    }
+
+    @Subscribe
+    private void onServerPostConnect(ServerPostConnectEvent event) {
+        resolveInFlight(event.getPlayer().getUniqueId());
+    }
+
+    @Subscribe
+    private void onServerConnected(ServerConnectedEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        serverHealthMonitor.recordSuccess(event.getServer());
+
+        RegisteredServer previousServer = countedServers.put(uuid, event.getServer());
+        if (previousServer != null) serverLoadBalancer.onDisconnected(previousServer);
+        serverLoadBalancer.onConnected(event.getServer());
+        serverSlotTable.place(uuid, event.getServer(), queueTypeResolver.apply(uuid));
+    }
+
+    @Subscribe
+    private void onKickedFromServer(KickedFromServerEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        if (event.kickedDuringServerConnect()) {
+            resolveInFlight(uuid);
+            serverSlotTable.remove(uuid, event.getServer());
+            serverHealthMonitor.recordFailure(event.getServer());
+            return;
         }
-        return leastPopServer;
+
+        if (countedServers.remove(uuid, event.getServer())) serverLoadBalancer.onDisconnected(event.getServer());
+        serverSlotTable.remove(uuid, event.getServer());
+    }
+
+    @Subscribe
+    private void onDisconnect(DisconnectEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        resolveInFlight(uuid);
+
+        RegisteredServer previousServer = countedServers.remove(uuid);
+        if (previousServer != null) serverLoadBalancer.onDisconnected(previousServer);
+        serverSlotTable.remove(uuid);
     }
 }
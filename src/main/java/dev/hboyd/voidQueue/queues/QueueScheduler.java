@@ -0,0 +1,56 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decides which queue type each admission in a queue movement is taken from.
+ *
+ * <p>Only called while routing is locked, so implementations do not need to be thread safe.</p>
+ */
+public interface QueueScheduler {
+    enum Policy {
+        DEFICIT_ROUND_ROBIN,
+        FIXED_ORDER
+    }
+
+    /**
+     * @param waiting the queue types with a player that can be admitted now, with how long that player has been
+     *                queued in nanoseconds
+     * @return the queue type to admit the next player from, or empty to admit no more players this movement
+     */
+    Optional<QueueType> next(Map<QueueType, Long> waiting);
+
+    static QueueScheduler create(VoidQueueConfig.Scheduling config) {
+        return switch (config.policy) {
+            case DEFICIT_ROUND_ROBIN -> new DeficitRoundRobinScheduler(config.weights, config.agingPeriod);
+            case FIXED_ORDER -> new FixedOrderScheduler();
+        };
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.api.queues.QueuePlayer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the order of every queue at a point in time.
+ *
+ * <p>Inspection commands and anything else that needs to look at whole queues read from a snapshot, rather than
+ * walking the live queues, so the cost of capturing the queues is paid once per queue movement.</p>
+ */
+public final class QueueSnapshot {
+    /**
+     * @param position the 1-based position of the player in their queue, counting offline players
+     */
+    public record Entry(@NotNull UUID uuid,
+                        @NotNull String username,
+                        @NotNull QueueType queueType,
+                        int position,
+                        boolean online) implements QueuePlayer {
+        @Override
+        public @NotNull UUID getUniqueId() {
+            return uuid;
+        }
+
+        @Override
+        public @NotNull String getUsername() {
+            return username;
+        }
+
+        @Override
+        public @NotNull QueueType getQueueType() {
+            return queueType;
+        }
+
+        @Override
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean isOnline() {
+            return online;
+        }
+    }
+
+    /**
+     * @param used      the slots used by players of the queue type, including players still connecting
+     * @param reserved  the slots reserved for the queue type
+     * @param connected the players of the queue type on a server
+     */
+    public record Slots(int used, int reserved, int connected) {}
+
+    private final long capturedNanos;
+    private final Map<QueueType, List<Entry>> queues;
+    private final Map<UUID, Entry> entries;
+    private final Map<QueueType, Slots> slots;
+
+    private QueueSnapshot(long capturedNanos,
+                          Map<QueueType, List<Entry>> queues,
+                          Map<UUID, Entry> entries,
+                          Map<QueueType, Slots> slots) {
+        this.capturedNanos = capturedNanos;
+        this.queues = queues;
+        this.entries = entries;
+        this.slots = slots;
+    }
+
+    public static QueueSnapshot capture(@NotNull QueueStore queueStore, @NotNull Map<QueueType, Slots> slots, long nowNanos) {
+        Map<QueueType, List<Entry>> queues = new EnumMap<>(QueueType.class);
+        Map<UUID, Entry> entries = new HashMap<>(queueStore.getQueuedCount() * 2);
+
+        for (QueueType queueType : QueueType.values()) {
+            List<Entry> queue = new ArrayList<>(queueStore.getQueuedCount(queueType));
+            // Disconnected players are held outside the queue, and are merged back in at the places they hold
+            List<GhostTable.Ghost> ghosts = queueStore.getGhosts(queueType);
+            int ghostIndex = 0;
+
+            Iterator<TrackedPlayer> queueIterator = queueStore.getQueueIterator(queueType);
+            while (queueIterator.hasNext()) {
+                TrackedPlayer trackedPlayer = queueIterator.next();
+                while (ghostIndex < ghosts.size() && queueStore.isAhead(ghosts.get(ghostIndex), trackedPlayer)) {
+                    add(queue, entries, ghosts.get(ghostIndex++));
+                }
+
+                Entry entry = new Entry(trackedPlayer.getPlayer().getUniqueId(),
+                        trackedPlayer.getPlayer().getUsername(),
+                        queueType,
+                        queue.size() + 1,
+                        trackedPlayer.getPlayer().isActive());
+
+                queue.add(entry);
+                entries.put(entry.uuid(), entry);
+            }
+            while (ghostIndex < ghosts.size()) {
+                add(queue, entries, ghosts.get(ghostIndex++));
+            }
+
+            queues.put(queueType, Collections.unmodifiableList(queue));
+        }
+
+        return new QueueSnapshot(nowNanos,
+                Collections.unmodifiableMap(queues),
+                Collections.unmodifiableMap(entries),
+                Collections.unmodifiableMap(new EnumMap<>(slots)));
+    }
+
+    private static void add(List<Entry> queue, Map<UUID, Entry> entries, GhostTable.Ghost ghost) {
+        Entry entry = new Entry(ghost.uuid(), ghost.username(), ghost.queueType(), queue.size() + 1, false);
+        queue.add(entry);
+        entries.put(entry.uuid(), entry);
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the snapshot was captured at
+     */
+    public long getCapturedNanos() {
+        return capturedNanos;
+    }
+
+    public List<Entry> getQueue(@NotNull QueueType queueType) {
+        return queues.get(queueType);
+    }
+
+    public Optional<Entry> getEntry(@NotNull UUID uuid) {
+        return Optional.ofNullable(entries.get(uuid));
+    }
+
+    public int getQueuedCount(@NotNull QueueType queueType) {
+        return queues.get(queueType).size();
+    }
+
+    public int getQueuedCount() {
+        return entries.size();
+    }
+
+    public Slots getSlots(@NotNull QueueType queueType) {
+        return slots.get(queueType);
+    }
+}
@@ -23,131 +23,306 @@
 
 package dev.hboyd.voidQueue.queues;
 
+import dev.hboyd.voidQueue.debug.FlightRecorder;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.utils.TieredQueue;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 public class QueueStore {
+    /**
+     * Told of every player added to or removed from a queue. Players disconnecting or reconnecting keep their place,
+     * so are neither.
+     */
+    public interface ChangeListener {
+        void onChange(@NotNull UUID uuid, boolean enqueued);
+    }
+
+    // Grown as needed, only avoids the first few resizes
+    private static final int INITIAL_GHOST_CAPACITY = 256;
+
     private final Logger logger;
+    private final FlightRecorder flightRecorder;
+    private final ChangeListener changeListener;
+
+    // Players are ordered by tier, then by their queue sequence
+    private final Map<QueueType, TieredQueue<TrackedPlayer>> queues;
+    // Sequences handed to players added to the back of a tier count up, those added to the front count down
+    private final AtomicLong backSequence;
+    private final AtomicLong frontSequence;
 
-    private final ConcurrentLinkedQueue<TrackedPlayer> normalQueue;
-    private final ConcurrentLinkedQueue<TrackedPlayer> priorityQueue;
-    private final ConcurrentLinkedQueue<TrackedPlayer> staffQueue;
+    // Queue each player is in, making membership checks O(1)
+    private final ConcurrentHashMap<TrackedPlayer, QueueType> queuedPlayers;
+    // Sizing a queue would walk every tier, so sizes are counted separately
+    private final Map<QueueType, AtomicInteger> queuedCounts;
+    private final AtomicInteger totalQueuedCount;
+    // Queued players who are disconnected from the proxy, still counted as queued
+    private final GhostTable ghosts;
 
-    public QueueStore(Logger logger) {
+    public QueueStore(Logger logger, FlightRecorder flightRecorder, ChangeListener changeListener, int tierCount) {
         this.logger = logger;
+        this.flightRecorder = flightRecorder;
+        this.changeListener = changeListener;
+        this.queuedPlayers = new ConcurrentHashMap<>();
+        this.queuedCounts = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) queuedCounts.put(queueType, new AtomicInteger());
+        this.totalQueuedCount = new AtomicInteger();
+        this.ghosts = new GhostTable(INITIAL_GHOST_CAPACITY);
 
-        this.normalQueue = new ConcurrentLinkedQueue<>();
-        this.priorityQueue = new ConcurrentLinkedQueue<>();
-        this.staffQueue = new ConcurrentLinkedQueue<>();
+        this.queues = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) queues.put(queueType, new TieredQueue<>(tierCount));
+        this.backSequence = new AtomicLong();
+        this.frontSequence = new AtomicLong();
     }
 
     public void addPlayer(@NotNull TrackedPlayer trackedPlayer,
                           @NotNull QueueType queueType) {
-        if (priorityQueue.contains(trackedPlayer)
-                || staffQueue.contains(trackedPlayer)
-                || normalQueue.contains(trackedPlayer))
+        if (queuedPlayers.putIfAbsent(trackedPlayer, queueType) != null)
             throw new IllegalArgumentException("Cannot add a existing queued player to the queue");
 
-        switch (queueType) {
-            case NORMAL:
-                normalQueue.add(trackedPlayer);
-                break;
-            case PRIORITY:
-                priorityQueue.add(trackedPlayer);
-                break;
-            case STAFF:
-                staffQueue.add(trackedPlayer);
-        }
+        trackedPlayer.setQueuedNanos(System.nanoTime());
+        trackedPlayer.setQueueSequence(backSequence.incrementAndGet());
+        flightRecorder.recordEnqueue(trackedPlayer, queueType, false, incrementCount(queueType, 1));
+        changeListener.onChange(trackedPlayer.getPlayer().getUniqueId(), true);
+        getQueue(queueType).add(trackedPlayer, trackedPlayer.getTier(), trackedPlayer.getQueueSequence());
+    }
+
+    /**
+     * Adds a player to the front of their tier of a queue, ahead of everyone already queued in the tier.
+     */
+    public void addPlayerFirst(@NotNull TrackedPlayer trackedPlayer,
+                               @NotNull QueueType queueType) {
+        if (queuedPlayers.putIfAbsent(trackedPlayer, queueType) != null)
+            throw new IllegalArgumentException("Cannot add a existing queued player to the queue");
+
+        trackedPlayer.setQueuedNanos(System.nanoTime());
+        trackedPlayer.setQueueSequence(frontSequence.decrementAndGet());
+        flightRecorder.recordEnqueue(trackedPlayer, queueType, true, incrementCount(queueType, 1));
+        changeListener.onChange(trackedPlayer.getPlayer().getUniqueId(), true);
+        getQueue(queueType).add(trackedPlayer, trackedPlayer.getTier(), trackedPlayer.getQueueSequence());
     }
 
     public void removePlayer(@NotNull TrackedPlayer trackedPlayer) {
-        normalQueue.remove(trackedPlayer);
-        priorityQueue.remove(trackedPlayer);
-        staffQueue.remove(trackedPlayer);
+        QueueType queueType = queuedPlayers.remove(trackedPlayer);
+        if (queueType == null) return;
+
+        getQueue(queueType).remove(trackedPlayer);
+        onRemoved(trackedPlayer, queueType);
     }
 
-    public Optional<QueueType> getQueueType(TrackedPlayer trackedPlayer) {
-        if (normalQueue.contains(trackedPlayer)) return Optional.of(QueueType.NORMAL);
-        if (priorityQueue.contains(trackedPlayer)) return Optional.of(QueueType.PRIORITY);
-        if (staffQueue.contains(trackedPlayer)) return Optional.of(QueueType.STAFF);
+    /**
+     * Removes every player from every queue in a single pass.
+     *
+     * @return the removed players
+     */
+    public List<TrackedPlayer> drain() {
+        List<TrackedPlayer> drained = new ArrayList<>(getQueuedCount());
+        for (QueueType queueType : QueueType.values()) {
+            drained.addAll(drain(queueType));
+        }
+        return drained;
+    }
+
+    /**
+     * Removes every player from a queue in a single pass, including disconnected players.
+     *
+     * @return the removed players still connected to the proxy, in queue order
+     */
+    public List<TrackedPlayer> drain(@NotNull QueueType queueType) {
+        TieredQueue<TrackedPlayer> queue = getQueue(queueType);
+        List<TrackedPlayer> drained = new ArrayList<>(getQueuedCount(queueType));
+
+        TrackedPlayer trackedPlayer;
+        while ((trackedPlayer = queue.poll()) != null) {
+            if (queuedPlayers.remove(trackedPlayer, queueType)) onRemoved(trackedPlayer, queueType);
+            drained.add(trackedPlayer);
+        }
+
+        for (GhostTable.Ghost ghost : ghosts.removeAll(queueType)) {
+            onGhostRemoved(ghost.uuid(), queueType);
+        }
+        return drained;
+    }
+
+    /**
+     * Replaces a queued player who has disconnected from the proxy with a ghost, which holds their place in the queue
+     * without holding on to their connection. The player stays counted as queued. Ignored for players who are not
+     * queued.
+     *
+     * @return true if the player was queued and is now a ghost
+     */
+    public boolean demote(@NotNull TrackedPlayer trackedPlayer, long disconnectNanos) {
+        boolean[] demoted = new boolean[1];
+        // Runs under the player's map entry lock, so cannot interleave with the player being removed
+        queuedPlayers.computeIfPresent(trackedPlayer, (key, queueType) -> {
+            TieredQueue<TrackedPlayer> queue = getQueue(queueType);
+            int tier = queue.getTier(key);
+            queue.remove(key);
+
+            ghosts.add(key.getPlayer().getUniqueId(), key.getPlayer().getUsername(), queueType, tier,
+                    key.getQueueSequence(), key.getQueuedNanos(), disconnectNanos);
+            demoted[0] = true;
+            return null;
+        });
+        return demoted[0];
+    }
+
+    /**
+     * Puts a reconnecting player back into the queue in the place held by their ghost, if they have one.
+     *
+     * @return true if the player had a ghost and is now queued
+     */
+    public boolean rehydrate(@NotNull TrackedPlayer trackedPlayer) {
+        Optional<GhostTable.Ghost> ghost = ghosts.remove(trackedPlayer.getPlayer().getUniqueId());
+        if (ghost.isEmpty()) return false;
+
+        QueueType queueType = ghost.get().queueType();
+        if (queuedPlayers.putIfAbsent(trackedPlayer, queueType) != null) {
+            // Queued again while disconnected, the ghost's place is given up
+            onGhostRemoved(ghost.get().uuid(), queueType);
+            return true;
+        }
 
-        return Optional.empty();
+        trackedPlayer.setQueuedNanos(ghost.get().queuedNanos());
+        trackedPlayer.setQueueSequence(ghost.get().sequence());
+        getQueue(queueType).add(trackedPlayer, ghost.get().tier(), ghost.get().sequence());
+        return true;
+    }
+
+    /**
+     * Removes a player's ghost from the queue, only if it was left by the disconnect at the given time.
+     *
+     * @return true if the ghost was removed
+     */
+    public boolean expireGhost(@NotNull UUID uuid, long disconnectNanos) {
+        Optional<GhostTable.Ghost> ghost = ghosts.remove(uuid, disconnectNanos);
+        if (ghost.isEmpty()) return false;
+
+        QueueType queueType = ghost.get().queueType();
+        onGhostRemoved(uuid, queueType);
+        return true;
+    }
+
+    public Optional<GhostTable.Ghost> getGhost(@NotNull UUID uuid) {
+        return ghosts.get(uuid);
+    }
+
+    public boolean hasGhost(@NotNull UUID uuid) {
+        return ghosts.contains(uuid);
+    }
+
+    /**
+     * @return the ghosts of a queue type, in queue order
+     */
+    public List<GhostTable.Ghost> getGhosts(@NotNull QueueType queueType) {
+        return ghosts.getGhosts(queueType);
+    }
+
+    /**
+     * Checks whether a ghost is ahead of a queued player of the same queue type.
+     */
+    public boolean isAhead(@NotNull GhostTable.Ghost ghost, @NotNull TrackedPlayer trackedPlayer) {
+        int tier = getQueue(ghost.queueType()).getTier(trackedPlayer);
+        return ghost.tier() != tier ? ghost.tier() > tier : ghost.sequence() < trackedPlayer.getQueueSequence();
+    }
+
+    public Optional<QueueType> getQueueType(TrackedPlayer trackedPlayer) {
+        return Optional.ofNullable(queuedPlayers.get(trackedPlayer));
     }
 
     public TrackedPlayer peek(QueueType queueType) {
-        return switch (queueType) {
-            case NORMAL ->  normalQueue.peek();
-            case PRIORITY -> priorityQueue.peek();
-            case STAFF ->  staffQueue.peek();
-        };
+        return getQueue(queueType).peek();
     }
 
 
     public Optional<TrackedPlayer> nextIdleActive(QueueType queueType) {
-        ConcurrentLinkedQueue<TrackedPlayer> queue = getQueue(queueType);
+        List<TrackedPlayer> idleActive = peekIdleActive(queueType, 1, trackedPlayer -> true);
+        return idleActive.isEmpty() ? Optional.empty() : Optional.of(idleActive.get(0));
+    }
 
-        return queue.stream().filter(trackedPlayer ->
-                trackedPlayer.getPlayer().isActive()
-                        && trackedPlayer.getConnectionState().isPresent()
-                        && trackedPlayer.getConnectionState().get() == TrackedPlayer.ConnectionState.LIMBO_JOIN)
-                .findFirst();
+    /**
+     * Returns up to {@code max} players from the front of a queue that could be routed now, in a single pass.
+     * The players are not removed from the queue.
+     */
+    public List<TrackedPlayer> peekIdleActive(QueueType queueType, int max, Predicate<TrackedPlayer> filter) {
+        List<TrackedPlayer> idleActive = new ArrayList<>(Math.min(max, 64));
+        Iterator<TrackedPlayer> queueIterator = getQueue(queueType).iterator();
+        while (idleActive.size() < max && queueIterator.hasNext()) {
+            TrackedPlayer trackedPlayer = queueIterator.next();
+            if (trackedPlayer.getPlayer().isActive()
+                    && trackedPlayer.getConnectionState().isPresent()
+                    && trackedPlayer.getConnectionState().get() == TrackedPlayer.ConnectionState.LIMBO_JOIN
+                    && !trackedPlayer.isBackingOff()
+                    && filter.test(trackedPlayer))
+                idleActive.add(trackedPlayer);
+        }
+        return idleActive;
     }
 
     public boolean isQueued(TrackedPlayer trackedPlayer) {
-        return normalQueue.contains(trackedPlayer)
-                || priorityQueue.contains(trackedPlayer)
-                || staffQueue.contains(trackedPlayer);
+        return queuedPlayers.containsKey(trackedPlayer);
     }
 
     public int getQueuedCount(QueueType queueType) {
-        return getQueue(queueType).size();
+        return queuedCounts.get(queueType).get();
     }
 
     public int getQueuedActiveIdleCount(QueueType queueType) {
-        ConcurrentLinkedQueue<TrackedPlayer> queue = getQueue(queueType);
-
-        return (int) queue.stream().filter(trackedPlayer ->
-                trackedPlayer.getPlayer().isActive()
-                        && trackedPlayer.getConnectionState().isPresent()
-                        && trackedPlayer.getConnectionState().get() == TrackedPlayer.ConnectionState.LIMBO_JOIN)
-                .count();
+        int count = 0;
+        for (TrackedPlayer trackedPlayer : getQueue(queueType)) {
+            if (trackedPlayer.getPlayer().isActive()
+                    && trackedPlayer.getConnectionState().isPresent()
+                    && trackedPlayer.getConnectionState().get() == TrackedPlayer.ConnectionState.LIMBO_JOIN)
+                count++;
+        }
+        return count;
     }
 
     public int getQueuedInActiveCount(QueueType queueType) {
-        ConcurrentLinkedQueue<TrackedPlayer> queue = getQueue(queueType);
-
-        return (int) queue.stream()
-                .filter(trackedPlayer -> !trackedPlayer.getPlayer().isActive())
-                .count();
+        return ghosts.size(queueType);
     }
 
     public int getQueuedInActiveCount() {
-        return getQueuedInActiveCount(QueueType.NORMAL)
-                + getQueuedInActiveCount(QueueType.PRIORITY)
-                + getQueuedInActiveCount(QueueType.STAFF);
+        return ghosts.size();
     }
 
-    private ConcurrentLinkedQueue<TrackedPlayer> getQueue(QueueType queueType) {
-        return switch (queueType) {
-            case NORMAL -> normalQueue;
-            case PRIORITY -> priorityQueue;
-            case STAFF -> staffQueue;
-        };
+    private TieredQueue<TrackedPlayer> getQueue(QueueType queueType) {
+        return queues.get(queueType);
     }
 
     public int getQueuedCount() {
-        return normalQueue.size() + priorityQueue.size() + staffQueue.size();
+        return totalQueuedCount.get();
+    }
+
+    // Must be called after the player has been removed from queuedPlayers
+    private void onRemoved(TrackedPlayer trackedPlayer, QueueType queueType) {
+        flightRecorder.recordRemove(trackedPlayer, queueType, incrementCount(queueType, -1));
+        changeListener.onChange(trackedPlayer.getPlayer().getUniqueId(), false);
+    }
+
+    private void onGhostRemoved(UUID uuid, QueueType queueType) {
+        flightRecorder.recordRemove(uuid, queueType, incrementCount(queueType, -1));
+        changeListener.onChange(uuid, false);
+    }
+
+    /**
+     * @return the new count of the queue type
+     */
+    private int incrementCount(QueueType queueType, int delta) {
+        totalQueuedCount.addAndGet(delta);
+        return queuedCounts.get(queueType).addAndGet(delta);
     }
 
+    /**
+     * Iterates the players of a queue who are connected to the proxy in order, from the highest tier to the lowest.
+     */
     public Iterator<TrackedPlayer> getQueueIterator(QueueType queueType) {
-        return switch (queueType) {
-            case NORMAL -> normalQueue.iterator();
-            case PRIORITY -> priorityQueue.iterator();
-            case STAFF -> staffQueue.iterator();
-        };
+        return getQueue(queueType).iterator();
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.utils.TieredQueue;
+import net.luckperms.api.cacheddata.CachedDataManager;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The configured priority tiers, from lowest to highest, and how a player's tier is resolved from LuckPerms.
+ *
+ * <p>Every tier uses the slots of its queue type, and is served ahead of the lower tiers queued alongside it.</p>
+ */
+public class QueueTiers {
+    public record Tier(@NotNull String name, @NotNull QueueType queueType, @NotNull String permission) {}
+
+    private final Logger logger;
+    private final String metaKey;
+    private final List<Tier> tiers;
+    private final Map<String, Integer> indexes;
+
+    public QueueTiers(Logger logger, VoidQueueConfig voidQueueConfig) {
+        this.logger = logger;
+        VoidQueueConfig.Tiers config = voidQueueConfig.tiers;
+        this.metaKey = config.metaKey;
+
+        List<Tier> tiers = new ArrayList<>();
+        if (config.levels.isEmpty()) {
+            // Matches the permissions used before tiers could be configured
+            tiers.add(new Tier("normal", QueueType.NORMAL, ""));
+            tiers.add(new Tier("priority", QueueType.PRIORITY, voidQueueConfig.priorityPermission));
+            tiers.add(new Tier("staff", QueueType.STAFF, voidQueueConfig.staffPermission));
+        } else {
+            for (VoidQueueConfig.Tier tier : config.levels) tiers.add(new Tier(tier.name, tier.queueType, tier.permission));
+        }
+
+        if (tiers.size() > TieredQueue.MAX_TIERS)
+            throw new IllegalArgumentException("At most " + TieredQueue.MAX_TIERS + " tiers are supported");
+
+        this.tiers = List.copyOf(tiers);
+        this.indexes = new HashMap<>();
+        for (int i = 0; i < tiers.size(); i++) indexes.put(tiers.get(i).name().toLowerCase(Locale.ROOT), i);
+    }
+
+    /**
+     * Resolves a player's tier from the meta value, which may name a tier or give its index, falling back to the
+     * highest tier whose permission the player has. Tiers without a permission are only given through the meta value.
+     * A meta value matching no tier is ignored, so a typo never grants a higher tier than the player's permissions.
+     *
+     * @param username the player's username, for logging
+     * @return the index of the tier
+     */
+    public int resolve(@NotNull String username, CachedDataManager cachedData) {
+        if (!metaKey.isEmpty()) {
+            String value = cachedData.getMetaData().getMetaValue(metaKey);
+            if (value != null) {
+                Optional<Integer> index = parseTier(value);
+                if (index.isPresent()) return index.get();
+
+                logger.warn("{} has unknown tier '{}' in meta key {}, falling back to permissions", username, value, metaKey);
+            }
+        }
+
+        for (int i = tiers.size() - 1; i > 0; i--) {
+            String permission = tiers.get(i).permission();
+            if (!permission.isEmpty() && cachedData.getPermissionData().checkPermission(permission).asBoolean()) return i;
+        }
+        return 0;
+    }
+
+    private Optional<Integer> parseTier(String value) {
+        Integer index = indexes.get(value.toLowerCase(Locale.ROOT));
+        if (index != null) return Optional.of(index);
+
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed >= 0 && parsed < tiers.size() ? Optional.of(parsed) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Tier getTier(int index) {
+        return tiers.get(index);
+    }
+
+    public int size() {
+        return tiers.size();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import com.velocitypowered.api.proxy.server.ServerPing;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import com.velocitypowered.api.scheduler.Scheduler;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the health of each backend server using periodic pings and the outcome of connection attempts.
+ * Each server has its own {@link CircuitBreaker}; servers with an open breaker are skipped when routing.
+ */
+public class ServerHealthMonitor {
+    private final Logger logger;
+
+    private final Map<RegisteredServer, CircuitBreaker> circuitBreakers;
+    private final Set<RegisteredServer> pingsInFlight;
+    // Max players each server reported in its last successful ping
+    private final Map<RegisteredServer, Integer> reportedMaxPlayers;
+    private final Duration pingTimeout;
+
+    private final ScheduledTask pingTask;
+
+    public ServerHealthMonitor(Logger logger,
+                               Object plugin,
+                               Scheduler scheduler,
+                               Collection<RegisteredServer> servers,
+                               VoidQueueConfig.HealthCheck healthCheckConfig) {
+        this.logger = logger;
+
+        this.circuitBreakers = new HashMap<>();
+        for (RegisteredServer server : servers) {
+            circuitBreakers.put(server, new CircuitBreaker(healthCheckConfig.failureThreshold,
+                    healthCheckConfig.openDuration.toNanos()));
+        }
+
+        this.pingsInFlight = ConcurrentHashMap.newKeySet();
+        this.reportedMaxPlayers = new ConcurrentHashMap<>();
+        this.pingTimeout = healthCheckConfig.pingTimeout;
+
+        this.pingTask = scheduler.buildTask(plugin, this::pingServers)
+                .repeat(healthCheckConfig.pingInterval)
+                .schedule();
+    }
+
+    /**
+     * Attempts to acquire permission to route a player to the given server.
+     *
+     * @see CircuitBreaker#tryAcquire(long)
+     */
+    public boolean tryAcquire(@NotNull RegisteredServer server) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(server);
+        return circuitBreaker == null || circuitBreaker.tryAcquire(System.nanoTime());
+    }
+
+    public boolean isAvailable(@NotNull RegisteredServer server) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(server);
+        return circuitBreaker == null || circuitBreaker.isAvailable(System.nanoTime());
+    }
+
+    public boolean hasAvailableServer() {
+        long now = System.nanoTime();
+        for (CircuitBreaker circuitBreaker : circuitBreakers.values()) {
+            if (circuitBreaker.isAvailable(now)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the max players the server reported in its last successful ping, if it has answered one
+     */
+    public OptionalInt getReportedMaxPlayers(@NotNull RegisteredServer server) {
+        Integer maxPlayers = reportedMaxPlayers.get(server);
+        return maxPlayers == null ? OptionalInt.empty() : OptionalInt.of(maxPlayers);
+    }
+
+    public Collection<RegisteredServer> getServers() {
+        return circuitBreakers.keySet();
+    }
+
+    public CircuitBreaker.State getState(@NotNull RegisteredServer server) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(server);
+        return circuitBreaker == null ? CircuitBreaker.State.CLOSED : circuitBreaker.getState(System.nanoTime());
+    }
+
+    public void recordSuccess(@NotNull RegisteredServer server) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(server);
+        if (circuitBreaker == null) return;
+
+        CircuitBreaker.State previousState = circuitBreaker.recordSuccess(System.nanoTime());
+        if (previousState == CircuitBreaker.State.HALF_OPEN)
+            logger.info("Server {} has recovered, resuming routing to it", server.getServerInfo().getName());
+    }
+
+    public void recordFailure(@NotNull RegisteredServer server) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(server);
+        if (circuitBreaker == null) return;
+
+        long now = System.nanoTime();
+        CircuitBreaker.State previousState = circuitBreaker.recordFailure(now);
+        if (previousState != CircuitBreaker.State.OPEN && circuitBreaker.getState(now) == CircuitBreaker.State.OPEN)
+            logger.warn("Server {} is unhealthy, no longer routing players to it", server.getServerInfo().getName());
+    }
+
+    public void shutdown() {
+        pingTask.cancel();
+    }
+
+    private void pingServers() {
+        for (RegisteredServer server : circuitBreakers.keySet()) {
+            if (!pingsInFlight.add(server)) continue; // Previous ping has not completed yet
+
+            server.ping()
+                    .orTimeout(pingTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((ping, throwable) -> {
+                        pingsInFlight.remove(server);
+                        if (throwable != null) {
+                            recordFailure(server);
+                            return;
+                        }
+
+                        recordSuccess(server);
+                        ping.getPlayers()
+                                .map(ServerPing.Players::getMax)
+                                .ifPresent(maxPlayers -> reportedMaxPlayers.put(server, maxPlayers));
+                    });
+        }
+    }
+}
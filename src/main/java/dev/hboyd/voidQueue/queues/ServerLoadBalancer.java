@@ -0,0 +1,155 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Weighted least-connections balancer over a fixed set of backend servers.
+ *
+ * <p>Per-server connected and pending counts are maintained by the caller from events, so picking a
+ * server never has to copy {@link RegisteredServer#getPlayersConnected()}. Servers are kept ordered by
+ * their load ({@code (connected + pending) / weight}), making a pick O(log servers) when the least loaded
+ * server is accepted.</p>
+ */
+public class ServerLoadBalancer {
+    private final Logger logger;
+
+    private final Map<RegisteredServer, ServerLoad> serverLoads;
+    private final TreeSet<ServerLoad> orderedLoads;
+
+    public ServerLoadBalancer(Logger logger,
+                              Collection<RegisteredServer> servers,
+                              Map<String, Integer> serverWeights) {
+        this.logger = logger;
+
+        this.serverLoads = new HashMap<>();
+        this.orderedLoads = new TreeSet<>(ServerLoad.LOAD_ORDER);
+
+        for (RegisteredServer server : servers) {
+            String name = server.getServerInfo().getName();
+            int weight = serverWeights.getOrDefault(name, 1);
+            if (weight <= 0) {
+                logger.warn("Ignoring non-positive weight {} for server {}", weight, name);
+                weight = 1;
+            }
+
+            ServerLoad serverLoad = new ServerLoad(server, name, weight);
+            serverLoads.put(server, serverLoad);
+            orderedLoads.add(serverLoad);
+        }
+    }
+
+    /**
+     * Picks the least loaded server accepted by the filter and reserves a pending connection on it.
+     * The reservation must later be released with {@link #releasePending(RegisteredServer)}.
+     *
+     * @param filter tested against servers in order of load until one is accepted
+     * @return the reserved server, or empty if no server was accepted
+     */
+    public synchronized Optional<RegisteredServer> reserve(Predicate<RegisteredServer> filter) {
+        for (ServerLoad serverLoad : orderedLoads) {
+            if (!filter.test(serverLoad.server)) continue;
+
+            orderedLoads.remove(serverLoad);
+            serverLoad.pending++;
+            orderedLoads.add(serverLoad);
+
+            return Optional.of(serverLoad.server);
+        }
+
+        return Optional.empty();
+    }
+
+    public synchronized void releasePending(@NotNull RegisteredServer server) {
+        update(server, serverLoad -> serverLoad.pending = Math.max(0, serverLoad.pending - 1));
+    }
+
+    public synchronized void onConnected(@NotNull RegisteredServer server) {
+        update(server, serverLoad -> serverLoad.connected++);
+    }
+
+    public synchronized void onDisconnected(@NotNull RegisteredServer server) {
+        update(server, serverLoad -> serverLoad.connected = Math.max(0, serverLoad.connected - 1));
+    }
+
+    public synchronized int getConnectedCount(@NotNull RegisteredServer server) {
+        ServerLoad serverLoad = serverLoads.get(server);
+        return serverLoad == null ? 0 : serverLoad.connected;
+    }
+
+    public synchronized int getPendingCount(@NotNull RegisteredServer server) {
+        ServerLoad serverLoad = serverLoads.get(server);
+        return serverLoad == null ? 0 : serverLoad.pending;
+    }
+
+    public boolean isBalanced(@NotNull RegisteredServer server) {
+        return serverLoads.containsKey(server);
+    }
+
+    public Collection<RegisteredServer> getServers() {
+        return Collections.unmodifiableSet(serverLoads.keySet());
+    }
+
+    // Entries must be removed from the tree before their load changes, otherwise the ordering breaks
+    private void update(RegisteredServer server, Consumer<ServerLoad> mutation) {
+        ServerLoad serverLoad = serverLoads.get(server);
+        if (serverLoad == null) return;
+
+        orderedLoads.remove(serverLoad);
+        mutation.accept(serverLoad);
+        orderedLoads.add(serverLoad);
+    }
+
+    private static final class ServerLoad {
+        // Compares load / weight by cross-multiplying, falling back to the name so no two servers are equal
+        private static final Comparator<ServerLoad> LOAD_ORDER = (a, b) -> {
+            int compare = Long.compare((long) a.load() * b.weight, (long) b.load() * a.weight);
+            return compare != 0 ? compare : a.name.compareTo(b.name);
+        };
+
+        private final RegisteredServer server;
+        private final String name;
+        private final int weight;
+
+        private int connected;
+        private int pending;
+
+        private ServerLoad(RegisteredServer server, String name, int weight) {
+            this.server = server;
+            this.name = name;
+            this.weight = weight;
+        }
+
+        private int load() {
+            return connected + pending;
+        }
+    }
+}
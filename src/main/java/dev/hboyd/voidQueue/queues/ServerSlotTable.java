@@ -0,0 +1,215 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Slot limits and priority/staff reservations of each server, applied the same way as the proxy wide limits.
+ *
+ * <p>Every player connected to or connecting to a server is placed against it under their queue type. Counts and
+ * limits are held in flat arrays indexed by server, so checking every server for room is a single pass over a few
+ * arrays rather than a walk over per-server objects.</p>
+ */
+public class ServerSlotTable {
+    private static final int QUEUE_TYPES = QueueType.values().length;
+    private static final int UNLIMITED = -1;
+
+    private record Placement(int server, int queueType) {}
+
+    private final Map<RegisteredServer, Integer> indexes;
+    private final RegisteredServer[] servers;
+
+    private final int[] limits;
+    private final int[] priorityReserved;
+    private final int[] staffReserved;
+    // Indexed by [server * QUEUE_TYPES + queue type]
+    private final int[] used;
+    // Bit per queue type, set if the server has room for another player of that type
+    private final int[] placeable;
+
+    private final Map<UUID, Placement> placements;
+    private boolean dirty;
+
+    public ServerSlotTable(Logger logger,
+                           Collection<RegisteredServer> servers,
+                           Map<String, VoidQueueConfig.ServerSlots> serverSlots) {
+        this.indexes = new HashMap<>();
+        this.servers = servers.toArray(RegisteredServer[]::new);
+        this.limits = new int[this.servers.length];
+        this.priorityReserved = new int[this.servers.length];
+        this.staffReserved = new int[this.servers.length];
+        this.used = new int[this.servers.length * QUEUE_TYPES];
+        this.placeable = new int[this.servers.length];
+        this.placements = new HashMap<>();
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < this.servers.length; i++) {
+            String name = this.servers[i].getServerInfo().getName();
+            indexes.put(this.servers[i], i);
+            names.add(name);
+
+            VoidQueueConfig.ServerSlots slots = serverSlots.get(name);
+            if (slots == null) {
+                limits[i] = UNLIMITED;
+                continue;
+            }
+
+            if (slots.priorityReserved + slots.staffReserved > slots.limit)
+                logger.warn("Server {} reserves more slots than its limit of {}", name, slots.limit);
+
+            limits[i] = slots.limit;
+            priorityReserved[i] = slots.priorityReserved;
+            staffReserved[i] = slots.staffReserved;
+        }
+
+        for (String name : serverSlots.keySet()) {
+            if (!names.contains(name)) logger.warn("Ignoring slots for unknown server {}", name);
+        }
+
+        this.dirty = true;
+    }
+
+    /**
+     * Places a player against a server, moving them from any server they were previously placed against.
+     */
+    public synchronized void place(@NotNull UUID uuid, @NotNull RegisteredServer server, @NotNull QueueType queueType) {
+        Integer index = indexes.get(server);
+        if (index == null) return;
+
+        Placement placement = new Placement(index, queueType.ordinal());
+        Placement previous = placements.put(uuid, placement);
+        if (placement.equals(previous)) return;
+
+        if (previous != null) used[previous.server * QUEUE_TYPES + previous.queueType]--;
+        used[placement.server * QUEUE_TYPES + placement.queueType]++;
+        dirty = true;
+    }
+
+    public synchronized void remove(@NotNull UUID uuid) {
+        Placement previous = placements.remove(uuid);
+        if (previous == null) return;
+
+        used[previous.server * QUEUE_TYPES + previous.queueType]--;
+        dirty = true;
+    }
+
+    /**
+     * Removes a player only if they are placed against the given server.
+     */
+    public synchronized void remove(@NotNull UUID uuid, @NotNull RegisteredServer server) {
+        Placement placement = placements.get(uuid);
+        Integer index = indexes.get(server);
+        if (placement == null || index == null || placement.server != index) return;
+
+        remove(uuid);
+    }
+
+    public synchronized boolean hasRoom(@NotNull RegisteredServer server, @NotNull QueueType queueType) {
+        Integer index = indexes.get(server);
+        if (index == null) return true;
+
+        refresh();
+        return (placeable[index] & (1 << queueType.ordinal())) != 0;
+    }
+
+    /**
+     * @return whether any server has room for another player of the queue type
+     */
+    public synchronized boolean hasRoom(@NotNull QueueType queueType) {
+        refresh();
+
+        int bit = 1 << queueType.ordinal();
+        for (int mask : placeable) {
+            if ((mask & bit) != 0) return true;
+        }
+        return servers.length == 0;
+    }
+
+    public synchronized int getUsed(@NotNull RegisteredServer server, @NotNull QueueType queueType) {
+        Integer index = indexes.get(server);
+        return index == null ? 0 : used[index * QUEUE_TYPES + queueType.ordinal()];
+    }
+
+    // Recomputes which servers have room for each queue type, only after the counts have changed
+    private void refresh() {
+        if (!dirty) return;
+
+        int normal = QueueType.NORMAL.ordinal();
+        int priority = QueueType.PRIORITY.ordinal();
+        int staff = QueueType.STAFF.ordinal();
+
+        for (int server = 0; server < servers.length; server++) {
+            int limit = limits[server];
+            if (limit == UNLIMITED) {
+                placeable[server] = (1 << QUEUE_TYPES) - 1;
+                continue;
+            }
+
+            int base = server * QUEUE_TYPES;
+            int normalUsed = used[base + normal];
+            int priorityUsed = used[base + priority];
+            int staffUsed = used[base + staff];
+            int prioritySlots = priorityReserved[server];
+            int staffSlots = staffReserved[server];
+            int normalSlots = limit - prioritySlots - staffSlots;
+
+            placeable[server] = (fits(normalUsed + 1, priorityUsed, staffUsed, normalSlots, prioritySlots, staffSlots) ? 1 << normal : 0)
+                    | (fits(normalUsed, priorityUsed + 1, staffUsed, normalSlots, prioritySlots, staffSlots) ? 1 << priority : 0)
+                    | (fits(normalUsed, priorityUsed, staffUsed + 1, normalSlots, prioritySlots, staffSlots) ? 1 << staff : 0);
+        }
+
+        dirty = false;
+    }
+
+    /*
+     * Same spilling as the proxy wide slots: staff beyond their reservation take normal then priority slots,
+     * priority beyond their reservation take normal slots.
+     */
+    private static boolean fits(int normalUsed, int priorityUsed, int staffUsed,
+                                int normalSlots, int prioritySlots, int staffSlots) {
+        int staffOverflow = Math.max(staffUsed - staffSlots, 0);
+        int priorityOverflow = Math.max(priorityUsed - prioritySlots, 0);
+
+        int usedByStaffOverflow = Math.min(staffOverflow, Math.max(0, normalSlots - normalUsed));
+        normalUsed += usedByStaffOverflow;
+        staffOverflow -= usedByStaffOverflow;
+
+        staffOverflow -= Math.min(staffOverflow, Math.max(0, prioritySlots - priorityUsed));
+
+        normalUsed += priorityOverflow + staffOverflow;
+        return normalUsed <= normalSlots;
+    }
+}
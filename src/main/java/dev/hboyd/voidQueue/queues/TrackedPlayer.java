@@ -30,7 +30,6 @@ import org.jetbrains.annotations.Nullable;
 import dev.hboyd.voidQueue.api.queues.QueueType;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Optional;
 
 public final class TrackedPlayer {
@@ -48,9 +47,17 @@ public final class TrackedPlayer {
     }
 
     // TODO: Should Disconnect record be here or somewhere else?
-    public record Disconnect(Instant time, @Nullable RegisteredServer server) {
+    /**
+     * @param nanos the {@link System#nanoTime()} the player disconnected at
+     * @param server the server the player was connected to, if any
+     */
+    public record Disconnect(long nanos, @Nullable RegisteredServer server) {
         public boolean hasElapsed(Duration duration) {
-            return Instant.now().isAfter(this.time.plus(duration));
+            return System.nanoTime() - nanos >= duration.toNanos();
+        }
+
+        public long deadlineNanos(Duration duration) {
+            return nanos + duration.toNanos();
         }
     }
 
@@ -58,10 +65,16 @@ public final class TrackedPlayer {
     private @Nullable LimboPlayer limboPlayer;
 
     private QueueType queuePermissionType;
+    private int tier;
     private @Nullable Disconnect lastDisconnect;
 
     private @Nullable ConnectionState connectionState;
 
+    private int retryAttempts;
+    private long retryNotBeforeNanos;
+    private long queuedNanos;
+    private long queueSequence;
+
     public TrackedPlayer(@NotNull LimboPlayer limboPlayer, @NotNull QueueType queuePermissionType, @Nullable ConnectionState connectionState) {
         this.player = limboPlayer.getProxyPlayer();
         this.limboPlayer = limboPlayer;
@@ -105,6 +118,17 @@ public final class TrackedPlayer {
         this.queuePermissionType = queuePermissionType;
     }
 
+    /**
+     * @return the index of the player's tier, ordering them within their queue
+     */
+    public int getTier() {
+        return tier;
+    }
+
+    public void setTier(int tier) {
+        this.tier = tier;
+    }
+
     public @NotNull Player getPlayer() {
         return player;
     }
@@ -125,6 +149,28 @@ public final class TrackedPlayer {
         this.limboPlayer = limboPlayer;
     }
 
+    /**
+     * @return the {@link System#nanoTime()} the player was last added to a queue
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    public void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
+
+    /**
+     * @return the order of the player within their tier of the queue they were last added to, lowest first
+     */
+    public long getQueueSequence() {
+        return queueSequence;
+    }
+
+    public void setQueueSequence(long queueSequence) {
+        this.queueSequence = queueSequence;
+    }
+
     public Optional<ConnectionState> getConnectionState() {
         return Optional.ofNullable(connectionState);
     }
@@ -137,4 +183,27 @@ public final class TrackedPlayer {
         this.connectionState = null;
     }
 
+    /**
+     * Delays the player from being routed again, doubling the delay for each consecutive retry.
+     * The retry count resets once the player has gone a full {@code max} past their last retry.
+     *
+     * @return the delay before the player may be routed again
+     */
+    public Duration backOff(Duration base, Duration max) {
+        long now = System.nanoTime();
+        if (retryAttempts > 0 && now - retryNotBeforeNanos > max.toNanos()) retryAttempts = 0;
+
+        Duration delay = base;
+        for (int i = 0; i < retryAttempts && delay.compareTo(max) < 0; i++) delay = delay.multipliedBy(2);
+        if (delay.compareTo(max) > 0) delay = max;
+
+        retryAttempts++;
+        retryNotBeforeNanos = now + delay.toNanos();
+        return delay;
+    }
+
+    public boolean isBackingOff() {
+        return retryAttempts > 0 && retryNotBeforeNanos - System.nanoTime() > 0;
+    }
+
 }
\ No newline at end of file
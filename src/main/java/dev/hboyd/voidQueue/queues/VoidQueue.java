@@ -27,7 +27,10 @@
 package dev.hboyd.voidQueue.queues;
 
 import com.velocitypowered.api.event.EventManager;
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.player.PlayerChooseInitialServerEvent;
 import com.velocitypowered.api.event.player.KickedFromServerEvent;
 import com.velocitypowered.api.event.player.ServerConnectedEvent;
 import com.velocitypowered.api.plugin.PluginContainer;
@@ -36,58 +39,116 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
 import com.velocitypowered.api.scheduler.ScheduledTask;
 import com.velocitypowered.api.scheduler.Scheduler;
-import dev.hboyd.voidQueue.utils.TranslationUtil;
-import net.elytrium.limboapi.api.LimboFactory;
-import net.elytrium.limboapi.api.LimboServer;
-import net.elytrium.limboapi.api.chunk.Dimension;
-import net.elytrium.limboapi.api.chunk.VirtualWorld;
 import net.elytrium.limboapi.api.event.LoginLimboRegisterEvent;
-import net.elytrium.limboapi.api.player.GameMode;
 import net.elytrium.limboapi.api.player.LimboPlayer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.translation.Argument;
 import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import org.slf4j.Logger;
+import dev.hboyd.voidQueue.api.events.PlayerQueueEvent;
+import dev.hboyd.voidQueue.api.queues.AdmissionCheck;
 import dev.hboyd.voidQueue.api.queues.QueueType;
 import dev.hboyd.voidQueue.configuration.VoidQueueConfig;
+import dev.hboyd.voidQueue.debug.FlightRecordFormat;
+import dev.hboyd.voidQueue.debug.FlightRecorder;
+import dev.hboyd.voidQueue.utils.DeadlineQueue;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 // TODO: Should we have methods pass services to what needs them or should we provide methods?
 public class VoidQueue {
+    private static final String STATUS_TEMPLATE = """
+            <aqua>Queue Status:
+                <aqua>Server: <yellow><in_game> / <max_connected>
+                <aqua>Queued: <yellow><queued> / <max_queued>
+                    <aqua>Queued offline: <yellow><queued_offline>
+                <aqua>Pause count: <pause_count>
+                <aqua>Limbo join: <yellow><join_millis>ms <aqua>average over <yellow><join_count> <aqua>joins""".stripIndent();
+
+    private static final String QUEUE_STATUS_TEMPLATE = """
+            <aqua>Queued:
+                <aqua>Online: <yellow><queued_online>
+                <aqua>Offline: <yellow><queued_offline>
+            <aqua>Slots used: <yellow><slots_used> / <reserved>
+            <aqua>In Game: <yellow><connected>
+            <aqua>Front 3: <yellow><first>, <second>, <third>""".stripIndent().indent(4);
+
     private final Logger logger;
     private final ProxyServer proxyServer;
     private final QueueStore queueStore;
     private final QueueRouterService queueRouterService;
+    private final ServerHealthMonitor serverHealthMonitor;
     private final PlayerTracker playerTracker;
     private final Object plugin;
     private final QueueNotifierService queueNotifierService;
+    private final KickClassifier kickClassifier;
+    private final VoidQueueView view;
+    private final QueueEventPublisher queueEventPublisher;
+    // Set when something consumes QueueAdvancedEvent, otherwise queue changes are not recorded at all
+    private final boolean publishQueueEvents;
+    private final FlightRecorder flightRecorder;
+    private final QueueScheduler queueScheduler;
+    private final QueueTiers queueTiers;
     private VoidQueueConfig voidQueueConfig;
 
-    private final Map<PluginContainer, String> pauses = new HashMap<>(); // TODO: Should pauses be owned by QueueStore?
+    private final Map<PluginContainer, String> pauses = new ConcurrentHashMap<>(); // TODO: Should pauses be owned by QueueStore?
+    private final DeadlineQueue<DisconnectExpiry> disconnectExpiries = new DeadlineQueue<>();
+    private final DeadlineQueue<GhostExpiry> ghostExpiries = new DeadlineQueue<>();
+    // Server reserved for each player connecting without going through limbo
+    private final ConcurrentHashMap<UUID, RegisteredServer> directConnects = new ConcurrentHashMap<>();
+    // Players connecting directly, who have no limbo to be returned to until they reach their server
+    private final Set<UUID> directConnecting = ConcurrentHashMap.newKeySet();
+    // Held while checking for free slots and reserving them, so concurrent routing cannot overshoot the limits
+    private final Object routingLock = new Object();
+
+    private record CachedStatus(QueueSnapshot snapshot, Component status) {}
+
+    // Captured by the queue tick, readers only ever see a published snapshot
+    private volatile QueueSnapshot snapshot;
+    private volatile CachedStatus cachedStatus;
+    private volatile boolean flushing;
+    private boolean flushForce;
 
     private ScheduledTask queueTickTask;
     private ScheduledTask queuePruneTask;
     private ScheduledTask queueNotifyTask;
+    private ScheduledTask connectTimeoutTask;
+    private ScheduledTask capacityTask;
 
-    private int connectedPlayerLimit; // TODO: This should probably be handled in another way
+    private volatile int connectedPlayerLimit; // TODO: This should probably be handled in another way
     private Integer queuedPlayerLimit;
 
     Collection<RegisteredServer> registeredServers;
-    private final LimboServer limboServer;
+    private final LimboProvider limboProvider;
+    private final AdmissionGate admissionGate;
+    private final JoinThrottle joinThrottle;
+    private final AdmissionPipeline admissionPipeline;
 
     public VoidQueue(Logger logger,
                      Object plugin, // TODO: Should we register our own event handlers?
                      ProxyServer proxyServer,
                      Collection<RegisteredServer> servers,
+                     LimboProvider limboProvider,
                      VoidQueueConfig voidQueueConfig) {
         this.logger = logger;
 
         this.voidQueueConfig = voidQueueConfig;
+
+        List<String> kickCategories = new ArrayList<>();
+        for (VoidQueueConfig.KickCategory category : voidQueueConfig.kickClassification.categories) kickCategories.add(category.name);
+        kickCategories.add(KickClassifier.UNCLASSIFIED);
+        this.flightRecorder = new FlightRecorder(voidQueueConfig.flightRecorderCapacity, servers, kickCategories);
+
+        this.queueTiers = new QueueTiers(logger, voidQueueConfig);
         this.playerTracker = new PlayerTracker(logger,
-                voidQueueConfig.priorityPermission,
-                voidQueueConfig.staffPermission);
+                queueTiers,
+                this::onTrackedPlayerDisconnect,
+                flightRecorder);
         this.proxyServer = proxyServer;
 
         this.connectedPlayerLimit = voidQueueConfig.connectedPlayerLimit;
@@ -98,34 +159,38 @@ public class VoidQueue {
         if (this.queuedPlayerLimit == -1)
             this.queuedPlayerLimit = null;
 
-        LimboFactory limboFactory = (LimboFactory) this.proxyServer.getPluginManager()
-                .getPlugin("limboapi")
-                .flatMap(PluginContainer::getInstance)
-                .orElseThrow();
-
-
-        VirtualWorld queueWorld = limboFactory.createVirtualWorld(
-                Dimension.OVERWORLD,
-                0,
-                100,
-                0,
-                (float) 90,
-                (float) 0.0);
-
-        this.limboServer = limboFactory.createLimbo(queueWorld)
-                .setName("VoidQueue")
-                .setWorldTime(18000)
-                .setDoDaylightCycle(false)
-                .setGameMode(GameMode.SPECTATOR)
-                .setViewDistance(2)
-                .setSimulationDistance(2);
-
-        this.queueStore = new QueueStore(logger);
+        this.limboProvider = limboProvider;
+
+        this.publishQueueEvents = voidQueueConfig.queueEvents || voidQueueConfig.adminApi.enabled;
+        this.queueStore = new QueueStore(logger, flightRecorder, this::onQueueChange, queueTiers.size());
+        this.queueScheduler = QueueScheduler.create(voidQueueConfig.scheduling);
+        this.admissionGate = new AdmissionGate(logger,
+                queueStore,
+                playerTracker,
+                queuedPlayerLimit,
+                voidQueueConfig.reconnectWindow);
+        this.joinThrottle = new JoinThrottle(logger, queueStore, playerTracker, voidQueueConfig.joinThrottle);
+        this.admissionPipeline = new AdmissionPipeline(logger, voidQueueConfig.admission);
+        this.serverHealthMonitor = new ServerHealthMonitor(
+                logger,
+                plugin,
+                proxyServer.getScheduler(),
+                servers,
+                voidQueueConfig.healthCheck);
         this.queueRouterService = new QueueRouterService(
                 logger,
                 servers,
-                limboServer,
-                this::createLimboWorldHandler);
+                voidQueueConfig.serverWeights,
+                voidQueueConfig.serverSlots,
+                uuid -> playerTracker.getQueuePlayer(uuid)
+                        .map(TrackedPlayer::getQueuePermissionType)
+                        .orElse(QueueType.NORMAL),
+                serverHealthMonitor,
+                voidQueueConfig.connectTimeout,
+                this::onConnectTimeout,
+                limboProvider,
+                this::createLimboWorldHandler,
+                flightRecorder);
 
         Optional<PluginContainer> container = proxyServer.getPluginManager().fromInstance(plugin);
         if(container.isEmpty()) throw new IllegalArgumentException("plugin is not registered");
@@ -133,15 +198,41 @@ public class VoidQueue {
         this.plugin = plugin;
 
         this.queueNotifierService = new QueueNotifierService(this, voidQueueConfig.notifyMethods);
+        this.kickClassifier = new KickClassifier(voidQueueConfig.kickClassification.categories,
+                voidQueueConfig.kickClassification.unclassifiedPolicy);
+
+        this.snapshot = captureSnapshot(System.nanoTime());
+        this.view = new VoidQueueView(this);
 
         EventManager eventManager = proxyServer.getEventManager();
+        this.queueEventPublisher = new QueueEventPublisher(eventManager, view, this::getSnapshot);
         eventManager.register(plugin, this);
         eventManager.register(plugin, playerTracker);
+        eventManager.register(plugin, admissionGate);
+        eventManager.register(plugin, joinThrottle);
+        eventManager.register(plugin, admissionPipeline);
+        eventManager.register(plugin, queueRouterService);
 
         Scheduler scheduler = proxyServer.getScheduler();
-        queueTickTask = scheduler.buildTask(plugin, this::moveQueue).repeat(voidQueueConfig.movementDelay).schedule();
+        queueTickTask = scheduler.buildTask(plugin, () -> {
+            long tickStart = System.nanoTime();
+            moveQueue();
+            snapshot = captureSnapshot(System.nanoTime());
+            recordTick(tickStart);
+            if (publishQueueEvents) queueEventPublisher.publish();
+        }).repeat(voidQueueConfig.movementDelay).schedule();
         queuePruneTask = scheduler.buildTask(plugin, this::pruneTrackedPlayers).repeat(voidQueueConfig.pruneDelay).schedule();
         queueNotifyTask = scheduler.buildTask(plugin, () -> queueNotifierService.notifyPositions()).repeat(Duration.ofMillis(500)).schedule();
+        connectTimeoutTask = scheduler.buildTask(plugin, queueRouterService::expireConnections).repeat(Duration.ofMillis(100)).schedule();
+
+        if (voidQueueConfig.dynamicConnectedLimit.enabled) {
+            CapacityEstimator capacityEstimator = new CapacityEstimator(serverHealthMonitor,
+                    voidQueueConfig.dynamicConnectedLimit,
+                    connectedPlayerLimit);
+            capacityTask = scheduler.buildTask(plugin, () -> updateConnectedPlayerLimit(capacityEstimator))
+                    .repeat(voidQueueConfig.healthCheck.pingInterval)
+                    .schedule();
+        }
     }
 
 
@@ -151,34 +242,70 @@ public class VoidQueue {
 
     private void onLimboSpawn(LimboPlayer limboPlayer) {
         playerTracker.trackPlayer(limboPlayer, TrackedPlayer.ConnectionState.LIMBO_JOIN).thenAccept(trackedPlayer -> {
-            if (queueStore.isQueued(trackedPlayer)) {
+            UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+            if (queueStore.isQueued(trackedPlayer) || queueStore.rehydrate(trackedPlayer)) {
+                admissionPipeline.discard(uuid);
+                admissionGate.release(uuid);
                 if (!pauses.isEmpty()) queueNotifierService.notifyPause(trackedPlayer);
                 return;
             }
 
-            if (queuedPlayerLimit != null && queueStore.getQueuedCount() > queuedPlayerLimit) {
+            // Players admitted by the gate already hold a slot, which is kept until they are queued
+            if (!admissionGate.hasReservation(uuid) && queuedPlayerLimit != null && queueStore.getQueuedCount() >= queuedPlayerLimit) {
                 playerTracker.unTrackPlayer(trackedPlayer);
                 queueRouterService.kick(trackedPlayer, Component.translatable("queue.errors.queue-full"));
+                return;
             }
 
             Optional<TrackedPlayer.Disconnect> disconnect = trackedPlayer.getLastDisconnect();
 
             // Check if normal player should be priority queued
-            if (disconnect.isPresent()
+            boolean recentInGame = disconnect.isPresent()
                     && trackedPlayer.getQueuePermissionType() == QueueType.NORMAL
                     && !disconnect.get().hasElapsed(voidQueueConfig.inGameDisconnectTimeout)
-                    && disconnect.get().server() != null) {
-                logger.info("Queueing recent in-game disconnect {} as priority queue", trackedPlayer.getPlayer().getUsername()); // TODO: Log with UUID
-                queueStore.addPlayer(trackedPlayer, QueueType.PRIORITY); // TODO: Notify player
+                    && disconnect.get().server() != null;
+            QueueType queueType = recentInGame ? QueueType.PRIORITY : trackedPlayer.getQueuePermissionType();
+
+            // Checks started at login, so have usually finished by the time the player spawns
+            admissionPipeline.admit(trackedPlayer.getPlayer()).thenAccept(result -> {
+                if (!result.allowed()) {
+                    reject(trackedPlayer, Objects.requireNonNullElse(result.reason(), Component.translatable("queue.errors.admission-failed")));
+                    return;
+                }
+
+                enqueue(trackedPlayer, queueType, recentInGame);
+            });
+        });
+    }
+
+    private void enqueue(TrackedPlayer trackedPlayer, QueueType queueType, boolean recentInGame) {
+        // Listeners may take their time deciding, the player waits in limbo meanwhile
+        proxyServer.getEventManager().fire(new PlayerQueueEvent(trackedPlayer.getPlayer(), queueType, view)).thenAccept(event -> {
+            if (event.isCancelled()) {
+                reject(trackedPlayer, Component.translatable("queue.errors.queue-cannot-join",
+                        Argument.string("reason", Objects.requireNonNullElse(event.getReason(), ""))));
                 return;
             }
+            // The player may have left or been queued elsewhere while listeners were deciding
+            if (!trackedPlayer.getPlayer().isActive() || queueStore.isQueued(trackedPlayer)) return;
 
-            logger.info("Queueing {}", trackedPlayer.getPlayer().getUsername());
-            queueStore.addPlayer(trackedPlayer, trackedPlayer.getQueuePermissionType());
+            if (recentInGame) {
+                logger.info("Queueing recent in-game disconnect {} as priority queue", trackedPlayer.getPlayer().getUsername()); // TODO: Log with UUID
+            } else {
+                logger.info("Queueing {}", trackedPlayer.getPlayer().getUsername());
+            }
+            queueStore.addPlayer(trackedPlayer, queueType); // TODO: Notify player of priority requeue
+            admissionGate.release(trackedPlayer.getPlayer().getUniqueId());
             if (!pauses.isEmpty()) queueNotifierService.notifyPause(trackedPlayer);
         });
     }
 
+    private void reject(TrackedPlayer trackedPlayer, Component reason) {
+        admissionGate.release(trackedPlayer.getPlayer().getUniqueId());
+        playerTracker.unTrackPlayer(trackedPlayer);
+        queueRouterService.kick(trackedPlayer, reason);
+    }
+
     @Subscribe
     private void onLimbo(LoginLimboRegisterEvent event) {
         event.setOnKickCallback(this::onKickedFromServer);
@@ -190,71 +317,225 @@ public class VoidQueue {
 
         Component kickReason = event.getServerKickReason().orElse(Component.text("Unable to connect to server"));
         if (event.kickedDuringServerConnect()) { // Failed to connect needs to rejoin
+            // Not a kick from a running server, so it is kept out of the kick categories
+            flightRecorder.recordConnectFailure(trackedPlayer.get());
             event.setResult(KickedFromServerEvent.DisconnectPlayer.create(kickReason));
             return false;
         }
 
-        String kickReasonString = TranslationUtil.toString(kickReason);
-        for (String fatalError : this.voidQueueConfig.fatalErrors) {
-            if (kickReasonString.toLowerCase().contains(fatalError.toLowerCase())) return false;
+        KickClassifier.Classification classification = kickClassifier.classify(kickReason);
+        flightRecorder.recordKick(trackedPlayer.get(), classification.index());
+
+        VoidQueueConfig.KickClassification kickConfig = voidQueueConfig.kickClassification;
+        switch (classification.retryPolicy()) {
+            case DROP -> {
+                return false;
+            }
+            case REQUEUE -> {} // Re-added to the back of the queue once they spawn in limbo
+            case REQUEUE_FRONT -> requeueFirst(trackedPlayer.get());
+            case BACKOFF_REQUEUE -> {
+                Duration delay = trackedPlayer.get().backOff(kickConfig.backoffBase, kickConfig.backoffMax);
+                logger.info("Retrying {} in {} after a {} kick",
+                        trackedPlayer.get().getPlayer().getUsername(), delay, classification.category());
+                requeueFirst(trackedPlayer.get());
+            }
         }
 
         this.queueRouterService.sendToLimbo(event.getPlayer()); // Requeue player
         return true;
     }
 
+    private void onConnectTimeout(InFlightConnections.InFlightConnection connection) {
+        TrackedPlayer trackedPlayer = connection.trackedPlayer();
+        if (!trackedPlayer.getPlayer().isActive() || trackedPlayer.isInGame()) return;
+        if (directConnecting.remove(trackedPlayer.getPlayer().getUniqueId())) {
+            // Never spawned in limbo, so there is no queue to return them to
+            queueRouterService.kick(trackedPlayer, Component.translatable("queue.errors.direct-connect-failed"));
+            return;
+        }
+
+        // Player is stuck between limbo and the server, return them to limbo to be routed again
+        requeueFirst(trackedPlayer);
+        queueRouterService.sendToLimbo(trackedPlayer.getPlayer());
+    }
+
+    private void requeueFirst(TrackedPlayer trackedPlayer) {
+        if (queueStore.isQueued(trackedPlayer)) return;
+        queueStore.addPlayerFirst(trackedPlayer, trackedPlayer.getQueuePermissionType());
+    }
+
     @Subscribe
     private void onServerConnect(ServerConnectedEvent event) {
+        directConnecting.remove(event.getPlayer().getUniqueId());
         Optional<TrackedPlayer> trackedPlayer = playerTracker.getQueuePlayer(event.getPlayer().getUniqueId());
         if (trackedPlayer.isEmpty()) return;
 
         if (!queueStore.isQueued(trackedPlayer.get())) return;
 
         trackedPlayer.get().getPlayer().clearTitle(); // TODO: Should this be the responsibility of proxy queue or should the notifier have an event?
+        if (publishQueueEvents) queueEventPublisher.recordAdmitted(event.getPlayer().getUniqueId());
         queueStore.removePlayer(trackedPlayer.get());
     }
 
-    public void moveQueue() {
-        if (isServerFull(QueueType.NORMAL)
-                && isServerFull(QueueType.PRIORITY)
-                && isServerFull(QueueType.STAFF)) return;
-        Optional<TrackedPlayer> trackedPlayer = Optional.empty();
+    private void onQueueChange(UUID uuid, boolean enqueued) {
+        if (publishQueueEvents) queueEventPublisher.recordChange(uuid, enqueued);
+    }
+
+    private void recordTick(long tickStart) {
+        if (!flightRecorder.isEnabled()) return;
 
+        int flags = 0;
+        if (isPaused()) flags |= FlightRecordFormat.TICK_PAUSED;
+        if (flushing) flags |= FlightRecordFormat.TICK_FLUSHING;
+        if (!queueRouterService.hasAvailableServer()) flags |= FlightRecordFormat.TICK_NO_SERVER;
 
-        if (!isServerFull(QueueType.STAFF)) {
-            trackedPlayer = queueStore.nextIdleActive(QueueType.STAFF);
+        flightRecorder.recordTick(flags,
+                queueRouterService.getInFlightConnections().size(),
+                queueStore.getQueuedCount(),
+                System.nanoTime() - tickStart);
+    }
+
+    public void moveQueue() {
+        synchronized (routingLock) {
+            moveQueueLocked();
+        }
+    }
+
+    private void moveQueueLocked() {
+        if (!queueRouterService.hasAvailableServer()) return;
+        if (flushing) {
+            flushTick();
+            return;
         }
-        if (!isPaused()) {
-            if (trackedPlayer.isEmpty() && !isServerFull(QueueType.NORMAL)) {
-                trackedPlayer = queueStore.nextIdleActive(QueueType.NORMAL);
+
+        boolean paused = isPaused();
+        long now = System.nanoTime();
+        Map<QueueType, TrackedPlayer> heads = new EnumMap<>(QueueType.class);
+        Map<QueueType, Long> waiting = new EnumMap<>(QueueType.class);
+
+        // Slots are recounted before each admission, as every route reserves a slot
+        for (int i = 0; i < voidQueueConfig.scheduling.admissionsPerTick; i++) {
+            heads.clear();
+            waiting.clear();
+            for (QueueType queueType : QueueType.values()) {
+                if (paused && queueType != QueueType.STAFF) continue;
+                if (isServerFull(queueType)) continue;
+
+                // Players already routed are skipped, they are removed from the queue once connected
+                List<TrackedPlayer> head = queueStore.peekIdleActive(queueType, 1,
+                        trackedPlayer -> !queueRouterService.getInFlightConnections().contains(trackedPlayer.getPlayer().getUniqueId()));
+                if (head.isEmpty()) continue;
+
+                heads.put(queueType, head.get(0));
+                waiting.put(queueType, now - head.get(0).getQueuedNanos());
             }
-            if (trackedPlayer.isEmpty() && !isServerFull(QueueType.PRIORITY)) {
-                trackedPlayer = queueStore.nextIdleActive(QueueType.PRIORITY);
+
+            Optional<QueueType> queueType = queueScheduler.next(waiting);
+            if (queueType.isEmpty()) return;
+            if (!queueRouterService.routeToServer(heads.get(queueType.get()))) return;
+        }
+    }
+
+    /**
+     * Starts routing every queued player, ignoring pauses, at up to {@code flushRoutesPerTick} players per queue
+     * movement. The flush ends once no more players can be routed.
+     *
+     * @param force whether to keep routing players once the server is full
+     */
+    public void flush(boolean force) {
+        synchronized (routingLock) {
+            this.flushForce = force;
+            this.flushing = true;
+        }
+    }
+
+    public boolean isFlushing() {
+        return flushing;
+    }
+
+    private void flushTick() {
+        int routesPerTick = voidQueueConfig.flushRoutesPerTick;
+        int remaining = routesPerTick;
+
+        for (QueueType queueType : QueueType.values()) {
+            // Players already routed are skipped, they are removed from the queue once connected
+            List<TrackedPlayer> candidates = queueStore.peekIdleActive(queueType, remaining,
+                    trackedPlayer -> !queueRouterService.getInFlightConnections().contains(trackedPlayer.getPlayer().getUniqueId()));
+
+            for (TrackedPlayer trackedPlayer : candidates) {
+                if (!flushForce && isServerFull(queueType)) break;
+                if (!queueRouterService.routeToServer(trackedPlayer)) return;
+                remaining--;
             }
+            if (remaining == 0) return;
+        }
+
+        if (remaining == routesPerTick) {
+            flushing = false;
+            logger.info("Finished flushing the queue");
         }
+    }
+
+    private record DisconnectExpiry(TrackedPlayer trackedPlayer, TrackedPlayer.Disconnect disconnect) {}
+
+    private record GhostExpiry(UUID uuid, long disconnectNanos) {}
+
+    private void onTrackedPlayerDisconnect(TrackedPlayer trackedPlayer) {
+        Optional<TrackedPlayer.Disconnect> disconnect = trackedPlayer.getLastDisconnect();
+        if (disconnect.isEmpty()) return;
+
+        // Queued players are reduced to a ghost of their position and untracked, so their connection can be collected
+        if (queueStore.demote(trackedPlayer, disconnect.get().nanos())) {
+            UUID uuid = trackedPlayer.getPlayer().getUniqueId();
+            playerTracker.unTrackPlayer(trackedPlayer);
+            ghostExpiries.add(new GhostExpiry(uuid, disconnect.get().nanos()),
+                    disconnect.get().deadlineNanos(voidQueueConfig.queuedDisconnectTimeout));
+            return;
+        }
+
+        disconnectExpiries.add(new DisconnectExpiry(trackedPlayer, disconnect.get()),
+                disconnect.get().deadlineNanos(getDisconnectTimeout(trackedPlayer)));
+    }
+
+    private Duration getDisconnectTimeout(TrackedPlayer trackedPlayer) {
+        // TODO: On disconnect a tracked players state give better indication as to where/what they where stage they where at (connecting to server, in server, connecting to queue etc)
+        return queueStore.isQueued(trackedPlayer)
+                ? voidQueueConfig.queuedDisconnectTimeout
+                : voidQueueConfig.inGameDisconnectTimeout;
+    }
 
-        trackedPlayer.ifPresent(queueRouterService::routeToServer);
+    /**
+     * Stops the background work started for the queue.
+     */
+    public void shutdown() {
+        serverHealthMonitor.shutdown();
+        if (capacityTask != null) capacityTask.cancel();
     }
 
     public void pruneTrackedPlayers() {
-        for (TrackedPlayer trackedPlayer : playerTracker.getTrackedPlayers()) {
-            if (trackedPlayer.getPlayer().isActive()) continue;
+        admissionPipeline.pruneExpired();
+        long now = System.nanoTime();
+        // Ghosts of players who have since reconnected are already gone, and a later disconnect leaves a newer ghost
+        ghostExpiries.pollExpired(now, expiry -> queueStore.expireGhost(expiry.uuid(), expiry.disconnectNanos()));
+        disconnectExpiries.pollExpired(now, expiry -> {
+            TrackedPlayer trackedPlayer = expiry.trackedPlayer();
+
+            // Skip players who have reconnected, disconnected again or been untracked since the deadline was added
+            if (trackedPlayer.getPlayer().isActive()
+                    || trackedPlayer.getLastDisconnect().orElse(null) != expiry.disconnect()
+                    || playerTracker.getQueuePlayer(trackedPlayer.getPlayer().getUniqueId()).orElse(null) != trackedPlayer)
+                return;
 
-            Optional<TrackedPlayer.Disconnect> disconnect = trackedPlayer.getLastDisconnect();
-            if (disconnect.isEmpty()) {
-                logger.error("Tracked player {} ({}) has been disconnected but does not have a disconnect time!",
-                        trackedPlayer.getPlayer().getUsername(),
-                        trackedPlayer.getPlayer().getUniqueId());
-                continue;
+            // The player may have been queued or dequeued since, changing which timeout applies
+            Duration timeout = getDisconnectTimeout(trackedPlayer);
+            if (!expiry.disconnect().hasElapsed(timeout)) {
+                disconnectExpiries.add(expiry, expiry.disconnect().deadlineNanos(timeout));
+                return;
             }
-            // TODO: On disconnect a tracked players state give better indication as to where/what they where stage they where at (connecting to server, in server, connecting to queue etc)
-            if (queueStore.isQueued(trackedPlayer)) {
-                if (!disconnect.get().hasElapsed(voidQueueConfig.queuedDisconnectTimeout)) return;
-            } else if (!disconnect.get().hasElapsed(voidQueueConfig.inGameDisconnectTimeout)) return;
 
             queueStore.removePlayer(trackedPlayer);
             playerTracker.unTrackPlayer(trackedPlayer);
-        }
+        });
     }
 
 
@@ -292,6 +573,23 @@ public class VoidQueue {
         return !pauses.isEmpty();
     }
 
+    public void addAdmissionCheck(Object plugin, AdmissionCheck check) {
+        Optional<PluginContainer> container = proxyServer.getPluginManager().fromInstance(plugin);
+        if(container.isEmpty()) throw new IllegalArgumentException("plugin is not registered");
+
+        admissionPipeline.addCheck(container.get(), player -> check.check(player).thenApply(reason -> reason
+                .map(message -> AdmissionPipeline.Result.deny(Component.translatable("queue.errors.queue-cannot-join",
+                        Argument.string("reason", message))))
+                .orElse(AdmissionPipeline.Result.allow())));
+    }
+
+    public void removeAdmissionChecks(Object plugin) {
+        Optional<PluginContainer> container = proxyServer.getPluginManager().fromInstance(plugin);
+        if(container.isEmpty()) throw new IllegalArgumentException("plugin is not registered");
+
+        admissionPipeline.removeChecks(container.get());
+    }
+
     public boolean isPaused(Object plugin) {
         Optional<PluginContainer> container = proxyServer.getPluginManager().fromInstance(plugin);
         if(container.isEmpty()) throw new IllegalArgumentException("plugin is not registered");
@@ -302,6 +600,13 @@ public class VoidQueue {
         return false;
     }
 
+    /**
+     * @return the public API view of this queue
+     */
+    public VoidQueueView getView() {
+        return view;
+    }
+
     public QueueStore getQueueStore() {
         return queueStore;
     }
@@ -314,6 +619,18 @@ public class VoidQueue {
         return queueRouterService;
     }
 
+    public KickClassifier getKickClassifier() {
+        return kickClassifier;
+    }
+
+    public QueueTiers getQueueTiers() {
+        return queueTiers;
+    }
+
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
     public record SlotsUsed(int  normalSlotsUsed, int prioritySlotsUsed, int staffSlotsUsed) {}
 
     private record SlotUsage(int normalSlotsUsed, int prioritySlotsUsed, int priorityOverflow, int staffSlotsUsed, int staffOverflow) {}
@@ -336,6 +653,7 @@ public class VoidQueue {
     }
 
     public boolean isServerFull(QueueType queueType) {
+        if (!queueRouterService.hasServerRoom(queueType)) return true;
         SlotUsage slotUsage = calculateSlotUsage();
 
         int maxNormalQueue = getReservedSlots(QueueType.NORMAL);
@@ -353,9 +671,11 @@ public class VoidQueue {
         int staffReservedSlots = getReservedSlots(QueueType.STAFF);
         int maxNormalQueue = getReservedSlots(QueueType.NORMAL);
 
-        int staffSlotsUsed = playerTracker.getInGameCount(QueueType.STAFF);
-        int prioritySlotsUsed = playerTracker.getInGameCount(QueueType.PRIORITY);
-        int normalSlotsUsed = playerTracker.getInGameCount(QueueType.NORMAL);
+        // Players still connecting are counted as their slots are already reserved
+        InFlightConnections inFlightConnections = queueRouterService.getInFlightConnections();
+        int staffSlotsUsed = playerTracker.getInGameCount(QueueType.STAFF) + inFlightConnections.getCount(QueueType.STAFF);
+        int prioritySlotsUsed = playerTracker.getInGameCount(QueueType.PRIORITY) + inFlightConnections.getCount(QueueType.PRIORITY);
+        int normalSlotsUsed = playerTracker.getInGameCount(QueueType.NORMAL) + inFlightConnections.getCount(QueueType.NORMAL);
 
         int staffOverflow = Math.max(staffSlotsUsed - staffReservedSlots, 0);
         int priorityOverflow = Math.max(prioritySlotsUsed - priorityReservedSlots, 0);
@@ -383,37 +703,108 @@ public class VoidQueue {
         return playerTracker;
     }
 
-    public Component getStatusMessage(QueueType queueType) {
-        String message = """
-                <aqua>Queued:
-                    <aqua>Online: <yellow><queued_online>
-                    <aqua>Offline: <yellow><queued_offline>
-                <aqua>Slots used: <yellow><slots_used> / <reserved>
-                <aqua>In Game: <yellow><connected>
-                <aqua>Front 3: <yellow><first>, <second>, <third>""".stripIndent().indent(4);
-
-        Iterator<TrackedPlayer> trackedPlayerIterator = queueStore.getQueueIterator(queueType);
-        String first = trackedPlayerIterator.hasNext() ? trackedPlayerIterator.next().getPlayer().getUsername() : "N/A";
-        String second = trackedPlayerIterator.hasNext() ? trackedPlayerIterator.next().getPlayer().getUsername() : "N/A";
-        String third = trackedPlayerIterator.hasNext() ? trackedPlayerIterator.next().getPlayer().getUsername() : "N/A";
-
-        return MiniMessage.miniMessage().deserialize(message,
-                Placeholder.unparsed("queued_online", String.valueOf(queueStore.getQueuedActiveIdleCount(queueType))),
-                Placeholder.unparsed("queued_offline", String.valueOf(queueStore.getQueuedInActiveCount(queueType))),
-                Placeholder.unparsed("slots_used", String.valueOf(getSlotsUsed(queueType))),
-                Placeholder.unparsed("reserved", String.valueOf(getReservedSlots(queueType))),
-                Placeholder.unparsed("connected", String.valueOf(playerTracker.getInGameCount(queueType))),
+    /**
+     * Returns the snapshot of every queue captured by the last queue movement. Never blocks or copies the queues.
+     */
+    public QueueSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private QueueSnapshot captureSnapshot(long now) {
+        SlotsUsed slotsUsed = getSlotsUsed();
+        Map<QueueType, QueueSnapshot.Slots> slots = new EnumMap<>(QueueType.class);
+        slots.put(QueueType.NORMAL, new QueueSnapshot.Slots(slotsUsed.normalSlotsUsed(),
+                getReservedSlots(QueueType.NORMAL),
+                playerTracker.getInGameCount(QueueType.NORMAL)));
+        slots.put(QueueType.PRIORITY, new QueueSnapshot.Slots(slotsUsed.prioritySlotsUsed(),
+                getReservedSlots(QueueType.PRIORITY),
+                playerTracker.getInGameCount(QueueType.PRIORITY)));
+        slots.put(QueueType.STAFF, new QueueSnapshot.Slots(slotsUsed.staffSlotsUsed(),
+                getReservedSlots(QueueType.STAFF),
+                playerTracker.getInGameCount(QueueType.STAFF)));
+
+        return QueueSnapshot.capture(queueStore, slots, now);
+    }
+
+    /**
+     * Returns the rendered queue status, which is only re-rendered when a new snapshot is captured.
+     */
+    public Component getStatus() {
+        QueueSnapshot current = getSnapshot();
+        CachedStatus cached = cachedStatus;
+        if (cached != null && cached.snapshot() == current) return cached.status();
+
+        Component status = renderStatus(current);
+        cachedStatus = new CachedStatus(current, status);
+        return status;
+    }
+
+    private Component renderStatus(QueueSnapshot snapshot) {
+        LimboProvider.SpawnStats spawnStats = limboProvider.getSpawnStats();
+        int queuedOffline = 0;
+        for (QueueType queueType : QueueType.values()) {
+            for (QueueSnapshot.Entry entry : snapshot.getQueue(queueType)) {
+                if (!entry.online()) queuedOffline++;
+            }
+        }
+
+        Component status = MiniMessage.miniMessage().deserialize(STATUS_TEMPLATE,
+                Placeholder.unparsed("in_game", String.valueOf(proxyServer.getPlayerCount())),
+                Placeholder.unparsed("max_connected", String.valueOf(getConnectedPlayerLimit())),
+                Placeholder.unparsed("pause_count", String.valueOf(getPauses().size())),
+                Placeholder.unparsed("queued", String.valueOf(snapshot.getQueuedCount())),
+                Placeholder.unparsed("max_queued", String.valueOf(getQueuedPlayerLimit().orElse(-1))),
+                Placeholder.unparsed("queued_offline", String.valueOf(queuedOffline)),
+                Placeholder.unparsed("join_millis", String.format("%.1f", spawnStats.averageMillis())),
+                Placeholder.unparsed("join_count", String.valueOf(spawnStats.spawns())));
+
+        for (QueueType queueType : QueueType.values()) {
+            status = status
+                    .appendNewline()
+                    .append(Component.text(queueType.getNameTitleCase() + ":"))
+                    .appendNewline()
+                    .append(getStatusMessage(snapshot, queueType));
+        }
+        return status;
+    }
+
+    private Component getStatusMessage(QueueSnapshot snapshot, QueueType queueType) {
+        List<QueueSnapshot.Entry> queue = snapshot.getQueue(queueType);
+        int queuedOnline = 0;
+        for (QueueSnapshot.Entry entry : queue) {
+            if (entry.online()) queuedOnline++;
+        }
+
+        String first = queue.size() > 0 ? queue.get(0).username() : "N/A";
+        String second = queue.size() > 1 ? queue.get(1).username() : "N/A";
+        String third = queue.size() > 2 ? queue.get(2).username() : "N/A";
+        QueueSnapshot.Slots slots = snapshot.getSlots(queueType);
+
+        return MiniMessage.miniMessage().deserialize(QUEUE_STATUS_TEMPLATE,
+                Placeholder.unparsed("queued_online", String.valueOf(queuedOnline)),
+                Placeholder.unparsed("queued_offline", String.valueOf(queue.size() - queuedOnline)),
+                Placeholder.unparsed("slots_used", String.valueOf(slots.used())),
+                Placeholder.unparsed("reserved", String.valueOf(slots.reserved())),
+                Placeholder.unparsed("connected", String.valueOf(slots.connected())),
                 Placeholder.unparsed("first", first),
                 Placeholder.unparsed("second", second),
                 Placeholder.unparsed("third", third));
     }
 
-    private int getReservedSlots(QueueType queueType) {
+    private void updateConnectedPlayerLimit(CapacityEstimator capacityEstimator) {
+        int previousLimit = connectedPlayerLimit;
+        connectedPlayerLimit = capacityEstimator.update(System.nanoTime());
+        if (connectedPlayerLimit != previousLimit)
+            logger.debug("Connected player limit changed from {} to {}", previousLimit, connectedPlayerLimit);
+    }
+
+    public int getReservedSlots(QueueType queueType) {
         int priorityReservedSlots = voidQueueConfig.priorityQueueReserved;
         int staffReservedSlots = voidQueueConfig.staffQueueReserved;
 
         return switch (queueType) {
-          case NORMAL -> connectedPlayerLimit - priorityReservedSlots - staffReservedSlots;
+          // An estimated connected limit may fall below the priority and staff reservations
+          case NORMAL -> Math.max(0, connectedPlayerLimit - priorityReservedSlots - staffReservedSlots);
           case PRIORITY -> priorityReservedSlots;
           case STAFF -> staffReservedSlots;
         };
@@ -421,18 +812,90 @@ public class VoidQueue {
 
     // TODO: This should be handled by the plugin itself (for multiple queues support)
     @Subscribe
-    private void onLoginLimboRegister(LoginLimboRegisterEvent event) {
-        event.addOnJoinCallback(() -> {
-            Player player = event.getPlayer();
-            // Get the queue
-            queueRouterService.sendToLimbo(player);
-        });
+    private EventTask onLoginLimboRegister(LoginLimboRegisterEvent event) {
+        Player player = event.getPlayer();
+        if (!voidQueueConfig.directConnect) {
+            event.addOnJoinCallback(() -> queueRouterService.sendToLimbo(player));
+            return null;
+        }
+
+        // Players must pass the admission checks to skip limbo. Slow checks are not waited for, the player spawns in
+        // limbo meanwhile and is admitted or turned away once they finish
+        // Timed out on a copy, so the result kept for onLimboSpawn still completes with the real outcome
+        CompletableFuture<AdmissionPipeline.Result> admission = admissionPipeline.get(player)
+                .thenApply(result -> result)
+                .completeOnTimeout(null, voidQueueConfig.directConnectWait.toMillis(), TimeUnit.MILLISECONDS);
+
+        return EventTask.resumeWhenComplete(playerTracker.trackPlayer(player, TrackedPlayer.ConnectionState.LOGIN)
+                .thenCombine(admission, (trackedPlayer, result) -> {
+                    Optional<RegisteredServer> server = result != null && result.allowed()
+                            ? reserveDirectConnect(trackedPlayer)
+                            : Optional.empty();
+                    if (server.isPresent()) {
+                        // Without a join callback the player continues to PlayerChooseInitialServerEvent
+                        admissionPipeline.discard(player.getUniqueId());
+                        // The player will never be queued, so the slot held for them at login is given back now
+                        admissionGate.release(player.getUniqueId());
+                        directConnects.put(player.getUniqueId(), server.get());
+                        return null;
+                    }
+
+                    event.addOnJoinCallback(() -> queueRouterService.sendToLimbo(player));
+                    return null;
+                }));
+    }
+
+    /**
+     * Reserves a server for a player to connect to directly, skipping limbo, when nobody is waiting ahead of them
+     * and their queue type has free slots.
+     */
+    private Optional<RegisteredServer> reserveDirectConnect(TrackedPlayer trackedPlayer) {
+        QueueType queueType = trackedPlayer.getQueuePermissionType();
+
+        synchronized (routingLock) {
+            if (isPaused() && queueType != QueueType.STAFF) return Optional.empty();
+            // Reconnecting players hold their place through a ghost, which may be in another queue type
+            if (queueStore.isQueued(trackedPlayer)
+                    || queueStore.hasGhost(trackedPlayer.getPlayer().getUniqueId())
+                    || queueStore.getQueuedCount(queueType) > 0) return Optional.empty();
+            if (isServerFull(queueType) || !queueRouterService.hasAvailableServer()) return Optional.empty();
+
+            return queueRouterService.reserveServer(trackedPlayer);
+        }
+    }
+
+    @Subscribe
+    private void onChooseInitialServer(PlayerChooseInitialServerEvent event) {
+        RegisteredServer server = directConnects.remove(event.getPlayer().getUniqueId());
+        if (server == null) return;
+
+        logger.info("Connecting {} directly to {}", event.getPlayer().getUsername(), server.getServerInfo().getName());
+        directConnecting.add(event.getPlayer().getUniqueId());
+        event.setInitialServer(server);
+    }
+
+    @Subscribe
+    private void onDisconnect(DisconnectEvent event) {
+        directConnects.remove(event.getPlayer().getUniqueId());
+        directConnecting.remove(event.getPlayer().getUniqueId());
     }
 
     public int getConnectedPlayerLimit() {
         return connectedPlayerLimit;
     }
 
+    public AdmissionGate getAdmissionGate() {
+        return admissionGate;
+    }
+
+    public AdmissionPipeline getAdmissionPipeline() {
+        return admissionPipeline;
+    }
+
+    public JoinThrottle getJoinThrottle() {
+        return joinThrottle;
+    }
+
     public Optional<Integer> getQueuedPlayerLimit() {
         return Optional.ofNullable(queuedPlayerLimit);
     }
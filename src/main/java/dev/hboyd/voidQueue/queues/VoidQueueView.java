@@ -0,0 +1,217 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.queues;
+
+import com.velocitypowered.api.plugin.PluginContainer;
+import dev.hboyd.voidQueue.api.queues.AdmissionCheck;
+import dev.hboyd.voidQueue.api.queues.Queue;
+import dev.hboyd.voidQueue.api.queues.QueuePlayer;
+import dev.hboyd.voidQueue.api.queues.QueueType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Implements the public API over the queue engine.
+ *
+ * <p>Queued counts are read from the queue store's counters, everything else from the latest {@link QueueSnapshot},
+ * so reads take no locks and never copy the live queues.</p>
+ */
+public final class VoidQueueView implements dev.hboyd.voidQueue.api.queues.VoidQueue {
+    private final VoidQueue voidQueue;
+    private final Map<QueueType, Queue> queues;
+
+    public VoidQueueView(@NotNull VoidQueue voidQueue) {
+        this.voidQueue = voidQueue;
+        this.queues = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) queues.put(queueType, new QueueTypeView(queueType));
+    }
+
+    @Override
+    public @NotNull Queue getQueue(@NotNull QueueType queueType) {
+        return queues.get(queueType);
+    }
+
+    @Override
+    public int getQueuedCount() {
+        return voidQueue.getQueueStore().getQueuedCount();
+    }
+
+    @Override
+    public int getQueuedCount(@NotNull QueueType queueType) {
+        return voidQueue.getQueueStore().getQueuedCount(queueType);
+    }
+
+    @Override
+    public int getSlotsUsed(@NotNull QueueType queueType) {
+        return voidQueue.getSnapshot().getSlots(queueType).used();
+    }
+
+    @Override
+    public int getConnectedCount(@NotNull QueueType queueType) {
+        return voidQueue.getSnapshot().getSlots(queueType).connected();
+    }
+
+    @Override
+    public @NotNull List<QueuePlayer> getTopPlayers(@NotNull QueueType queueType, int count) {
+        return topPlayers(voidQueue.getSnapshot(), queueType, count);
+    }
+
+    @Override
+    public boolean isPlayerQueued(@NotNull UUID uuid) {
+        if (voidQueue.getQueueStore().hasGhost(uuid)) return true;
+
+        Optional<TrackedPlayer> trackedPlayer = voidQueue.getPlayerTracker().getQueuePlayer(uuid);
+        return trackedPlayer.isPresent() && voidQueue.getQueueStore().isQueued(trackedPlayer.get());
+    }
+
+    @Override
+    public @NotNull Optional<QueuePlayer> getQueuePlayer(@NotNull UUID uuid) {
+        return voidQueue.getSnapshot().getEntry(uuid).map(QueuePlayer.class::cast);
+    }
+
+    @Override
+    public @NotNull Optional<QueuePlayer> getQueuePlayer(@NotNull String username) {
+        return voidQueue.getPlayerTracker().getQueuePlayer(username)
+                .flatMap(trackedPlayer -> getQueuePlayer(trackedPlayer.getPlayer().getUniqueId()));
+    }
+
+    @Override
+    public @NotNull OptionalInt getPositionOf(@NotNull UUID uuid) {
+        return voidQueue.getSnapshot().getEntry(uuid)
+                .map(entry -> OptionalInt.of(entry.position()))
+                .orElse(OptionalInt.empty());
+    }
+
+    @Override
+    public int getConnectedPlayerLimit() {
+        return voidQueue.getConnectedPlayerLimit();
+    }
+
+    @Override
+    public @NotNull Optional<Integer> getQueuedPlayerLimit() {
+        return voidQueue.getQueuedPlayerLimit();
+    }
+
+    @Override
+    public void addPause(@NotNull Object plugin, @NotNull String reason) {
+        voidQueue.addPause(plugin, reason);
+    }
+
+    @Override
+    public void removePause(@NotNull Object plugin) {
+        voidQueue.removePause(plugin);
+    }
+
+    @Override
+    public boolean hasPause(@NotNull Object plugin) {
+        return voidQueue.hasPause(plugin);
+    }
+
+    @Override
+    public boolean isPaused() {
+        return voidQueue.isPaused();
+    }
+
+    @Override
+    public @NotNull Map<PluginContainer, String> getPauses() {
+        return Collections.unmodifiableMap(voidQueue.getPauses());
+    }
+
+    @Override
+    public void addAdmissionCheck(@NotNull Object plugin, @NotNull AdmissionCheck check) {
+        voidQueue.addAdmissionCheck(plugin, check);
+    }
+
+    @Override
+    public void removeAdmissionChecks(@NotNull Object plugin) {
+        voidQueue.removeAdmissionChecks(plugin);
+    }
+
+    private static List<QueuePlayer> topPlayers(QueueSnapshot snapshot, QueueType queueType, int count) {
+        if (count < 0) throw new IllegalArgumentException("count must not be negative");
+
+        List<QueueSnapshot.Entry> queue = snapshot.getQueue(queueType);
+        // The snapshot is immutable, so a view of its front is safe to hand out
+        return Collections.unmodifiableList(queue.subList(0, Math.min(count, queue.size())));
+    }
+
+    private final class QueueTypeView implements Queue {
+        private final QueueType queueType;
+
+        private QueueTypeView(QueueType queueType) {
+            this.queueType = queueType;
+        }
+
+        @Override
+        public @NotNull QueueType getQueueType() {
+            return queueType;
+        }
+
+        @Override
+        public int getQueuedCount() {
+            return voidQueue.getQueueStore().getQueuedCount(queueType);
+        }
+
+        @Override
+        public int getSlotsUsed() {
+            return voidQueue.getSnapshot().getSlots(queueType).used();
+        }
+
+        @Override
+        public int getReservedSlots() {
+            return voidQueue.getSnapshot().getSlots(queueType).reserved();
+        }
+
+        @Override
+        public int getConnectedCount() {
+            return voidQueue.getSnapshot().getSlots(queueType).connected();
+        }
+
+        @Override
+        public @NotNull List<QueuePlayer> getTopPlayers(int count) {
+            return topPlayers(voidQueue.getSnapshot(), queueType, count);
+        }
+
+        @Override
+        public @NotNull Optional<QueuePlayer> getQueuePlayer(@NotNull UUID uuid) {
+            return voidQueue.getSnapshot().getEntry(uuid)
+                    .filter(entry -> entry.queueType() == queueType)
+                    .map(QueuePlayer.class::cast);
+        }
+
+        @Override
+        public @NotNull OptionalInt getPositionOf(@NotNull UUID uuid) {
+            return getQueuePlayer(uuid)
+                    .map(queuePlayer -> OptionalInt.of(queuePlayer.getPosition()))
+                    .orElse(OptionalInt.empty());
+        }
+    }
+}
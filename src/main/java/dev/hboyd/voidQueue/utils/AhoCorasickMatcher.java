@@ -0,0 +1,159 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.utils;
+
+import java.util.*;
+
+/**
+ * Case-insensitive multi-pattern matcher built on an Aho-Corasick automaton.
+ *
+ * <p>Each pattern is tagged with a group index (0-63). Matching scans the input once, regardless of the number
+ * of patterns, and returns a bitmask of every group with at least one pattern occurring in the input.</p>
+ */
+public final class AhoCorasickMatcher {
+    public static final int MAX_GROUPS = Long.SIZE;
+
+    // Per-node transitions, keys sorted for binary search
+    private final char[][] transitionKeys;
+    private final int[][] transitionTargets;
+    private final int[] failureLinks;
+    // Groups matched on reaching a node, including those inherited through failure links
+    private final long[] outputs;
+
+    private AhoCorasickMatcher(char[][] transitionKeys, int[][] transitionTargets, int[] failureLinks, long[] outputs) {
+        this.transitionKeys = transitionKeys;
+        this.transitionTargets = transitionTargets;
+        this.failureLinks = failureLinks;
+        this.outputs = outputs;
+    }
+
+    /**
+     * @param input the text to search
+     * @return a bitmask with bit {@code n} set if any pattern of group {@code n} occurs in the input
+     */
+    public long match(CharSequence input) {
+        long matched = 0L;
+        int node = 0;
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = Character.toLowerCase(input.charAt(i));
+
+            int next;
+            while ((next = transition(node, c)) < 0 && node != 0) node = failureLinks[node];
+            node = Math.max(next, 0);
+
+            matched |= outputs[node];
+        }
+        return matched;
+    }
+
+    private int transition(int node, char c) {
+        int index = Arrays.binarySearch(transitionKeys[node], c);
+        return index < 0 ? -1 : transitionTargets[node][index];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<Long> outputs = new ArrayList<>();
+
+        private Builder() {
+            addNode();
+        }
+
+        public Builder addPattern(String pattern, int group) {
+            if (group < 0 || group >= MAX_GROUPS)
+                throw new IllegalArgumentException("Group must be between 0 and " + (MAX_GROUPS - 1));
+            if (pattern.isEmpty()) throw new IllegalArgumentException("Pattern cannot be empty");
+
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = addNode();
+                    children.get(node).put(c, next);
+                }
+                node = next;
+            }
+            outputs.set(node, outputs.get(node) | (1L << group));
+            return this;
+        }
+
+        public AhoCorasickMatcher build() {
+            int nodeCount = children.size();
+            char[][] transitionKeys = new char[nodeCount][];
+            int[][] transitionTargets = new int[nodeCount][];
+            int[] failureLinks = new int[nodeCount];
+            long[] nodeOutputs = new long[nodeCount];
+
+            for (int node = 0; node < nodeCount; node++) {
+                TreeMap<Character, Integer> nodeChildren = children.get(node);
+                transitionKeys[node] = new char[nodeChildren.size()];
+                transitionTargets[node] = new int[nodeChildren.size()];
+
+                int i = 0;
+                for (Map.Entry<Character, Integer> child : nodeChildren.entrySet()) {
+                    transitionKeys[node][i] = child.getKey();
+                    transitionTargets[node][i] = child.getValue();
+                    i++;
+                }
+                nodeOutputs[node] = outputs.get(node);
+            }
+
+            AhoCorasickMatcher matcher = new AhoCorasickMatcher(transitionKeys, transitionTargets, failureLinks, nodeOutputs);
+
+            // Breadth first so each node's failure link is resolved before its children
+            ArrayDeque<Integer> pending = new ArrayDeque<>();
+            for (int child : transitionTargets[0]) pending.add(child);
+
+            while (!pending.isEmpty()) {
+                int node = pending.poll();
+                for (int i = 0; i < transitionKeys[node].length; i++) {
+                    char c = transitionKeys[node][i];
+                    int child = transitionTargets[node][i];
+
+                    int failure = failureLinks[node];
+                    int next;
+                    while ((next = matcher.transition(failure, c)) < 0 && failure != 0) failure = failureLinks[failure];
+                    failureLinks[child] = next > 0 && next != child ? next : 0;
+                    nodeOutputs[child] |= nodeOutputs[failureLinks[child]];
+
+                    pending.add(child);
+                }
+            }
+
+            return matcher;
+        }
+
+        private int addNode() {
+            children.add(new TreeMap<>());
+            outputs.add(0L);
+            return children.size() - 1;
+        }
+    }
+}
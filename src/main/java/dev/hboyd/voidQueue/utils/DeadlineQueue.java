@@ -0,0 +1,71 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Min-heap of values ordered by a {@link System#nanoTime()} deadline.
+ *
+ * <p>Only deadlines that have passed are touched when polling, so the cost of an expiry pass is proportional to
+ * the number of expired values rather than the number of pending ones. Values are not removed when they become
+ * irrelevant; consumers are expected to check whether an expired value still applies.</p>
+ *
+ * @param <T> the value attached to each deadline
+ */
+public final class DeadlineQueue<T> {
+    private record Deadline<T>(long deadlineNanos, T value) {}
+
+    // Compare the difference rather than the values, as nanoTime may overflow
+    private final PriorityQueue<Deadline<T>> deadlines =
+            new PriorityQueue<>((a, b) -> Long.signum(a.deadlineNanos - b.deadlineNanos));
+
+    public synchronized void add(T value, long deadlineNanos) {
+        deadlines.add(new Deadline<>(deadlineNanos, value));
+    }
+
+    /**
+     * Removes every value whose deadline has passed and passes it to the consumer in deadline order.
+     * The consumer is called without holding the queue's lock, so it may add new deadlines.
+     */
+    public void pollExpired(long nowNanos, Consumer<T> expired) {
+        List<T> expiredValues = new ArrayList<>();
+        synchronized (this) {
+            Deadline<T> deadline;
+            while ((deadline = deadlines.peek()) != null && deadline.deadlineNanos - nowNanos <= 0) {
+                deadlines.poll();
+                expiredValues.add(deadline.value);
+            }
+        }
+
+        expiredValues.forEach(expired);
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+}
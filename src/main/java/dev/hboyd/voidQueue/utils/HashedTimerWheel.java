@@ -0,0 +1,165 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for expiring large numbers of short deadlines.
+ *
+ * <p>Scheduling and cancelling are O(1). Each {@link #advance(long, Consumer)} only visits the buckets for the
+ * ticks that have elapsed, instead of scanning every pending deadline. Deadlines further away than one rotation
+ * of the wheel wait out the extra rotations in their bucket.</p>
+ *
+ * @param <T> the value attached to each deadline
+ */
+public final class HashedTimerWheel<T> {
+    private final long tickNanos;
+    private final Timeout<T>[] buckets;
+    private final int mask;
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickNanos  the resolution of the wheel
+     * @param wheelSize  the number of buckets, rounded up to a power of two
+     * @param startNanos the current {@link System#nanoTime()}
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(long tickNanos, int wheelSize, long startNanos) {
+        if (tickNanos <= 0) throw new IllegalArgumentException("tickNanos must be positive");
+        if (wheelSize <= 0 || wheelSize > 1 << 30) throw new IllegalArgumentException("wheelSize must be between 1 and 2^30");
+
+        int normalizedSize = Integer.highestOneBit(wheelSize);
+        if (normalizedSize < wheelSize) normalizedSize <<= 1;
+
+        this.tickNanos = tickNanos;
+        this.buckets = (Timeout<T>[]) new Timeout[normalizedSize];
+        this.mask = normalizedSize - 1;
+        this.currentTick = Math.floorDiv(startNanos, tickNanos);
+    }
+
+    /**
+     * Schedules a value to expire at the given deadline.
+     *
+     * @return a handle that can be used to cancel the deadline
+     */
+    public synchronized Timeout<T> schedule(T value, long deadlineNanos) {
+        // Never place a deadline in a tick that has already been processed
+        long deadlineTick = Math.max(ceilDiv(deadlineNanos, tickNanos), currentTick + 1);
+        long ticksAway = deadlineTick - currentTick - 1;
+
+        Timeout<T> timeout = new Timeout<>(value, deadlineNanos, ticksAway / buckets.length);
+        int index = (int) (deadlineTick & mask);
+        timeout.bucket = index;
+        timeout.next = buckets[index];
+        if (timeout.next != null) timeout.next.previous = timeout;
+        buckets[index] = timeout;
+
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a deadline.
+     *
+     * @return false if the deadline had already expired or been cancelled
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket < 0) return false;
+
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Expires every deadline that has passed, passing each value to the consumer.
+     * The consumer is called while holding the wheel's lock and must not block.
+     */
+    public synchronized void advance(long nowNanos, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowNanos, tickNanos);
+        // After a long pause every bucket is due, visiting them once is enough
+        long ticks = Math.min(targetTick - currentTick, buckets.length);
+
+        for (long i = 1; i <= ticks; i++) {
+            Timeout<T> timeout = buckets[(int) ((currentTick + i) & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.remainingRounds <= 0 || timeout.deadlineNanos - nowNanos <= 0) {
+                    unlink(timeout);
+                    expired.accept(timeout.value);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        currentTick = Math.max(currentTick, targetTick);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.previous != null) timeout.previous.next = timeout.next;
+        else buckets[timeout.bucket] = timeout.next;
+        if (timeout.next != null) timeout.next.previous = timeout.previous;
+
+        timeout.bucket = -1;
+        timeout.next = null;
+        timeout.previous = null;
+        size--;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        private int bucket;
+        private Timeout<T> next;
+        private Timeout<T> previous;
+
+        private Timeout(T value, long deadlineNanos, long remainingRounds) {
+            this.value = value;
+            this.deadlineNanos = deadlineNanos;
+            this.remainingRounds = remainingRounds;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.utils;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Count-min sketch of how often keys have been seen within a sliding window.
+ *
+ * <p>The window is split into slots, each holding its own sketch, and the oldest slot is cleared as the window moves.
+ * Memory is fixed at {@code slots * depth * width} counters no matter how many distinct keys are counted. Estimates
+ * never undercount, but may overcount when keys collide in every row.</p>
+ */
+public final class SlidingCountMinSketch {
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final int depth;
+    private final int width;
+    private final int columnMask;
+    private final long slotNanos;
+    // Indexed by [slot][row * width + column]
+    private final int[][] slots;
+
+    private long currentSlot;
+
+    /**
+     * @param width      the number of counters per row, rounded up to a power of two
+     * @param depth      the number of rows, each using a different hash
+     * @param window     the duration keys are counted over
+     * @param slotCount  the number of slots the window is split into
+     * @param startNanos the current {@link System#nanoTime()}
+     */
+    public SlidingCountMinSketch(int width, int depth, Duration window, int slotCount, long startNanos) {
+        if (width <= 0 || width > 1 << 24) throw new IllegalArgumentException("width must be between 1 and 2^24");
+        if (depth <= 0) throw new IllegalArgumentException("depth must be positive");
+        if (slotCount <= 0) throw new IllegalArgumentException("slotCount must be positive");
+        if (window.toNanos() < slotCount) throw new IllegalArgumentException("window is too short for the slot count");
+
+        int normalizedWidth = Integer.highestOneBit(width);
+        if (normalizedWidth < width) normalizedWidth <<= 1;
+
+        this.depth = depth;
+        this.width = normalizedWidth;
+        this.columnMask = normalizedWidth - 1;
+        this.slotNanos = window.toNanos() / slotCount;
+        this.slots = new int[slotCount][depth * normalizedWidth];
+        this.currentSlot = Math.floorDiv(startNanos, slotNanos);
+    }
+
+    /**
+     * Counts an occurrence of a key.
+     *
+     * @return the estimated number of occurrences of the key within the window, including this one
+     */
+    public synchronized int increment(long key, long nowNanos) {
+        advance(nowNanos);
+
+        int[] slot = slots[slotIndex(currentSlot)];
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, key);
+            if (slot[index] != Integer.MAX_VALUE) slot[index]++;
+        }
+
+        return estimate(key);
+    }
+
+    /**
+     * @return the estimated number of occurrences of the key within the window
+     */
+    public synchronized int estimate(long key, long nowNanos) {
+        advance(nowNanos);
+        return estimate(key);
+    }
+
+    private int estimate(long key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, key);
+            long sum = 0;
+            for (int[] slot : slots) sum += slot[index];
+
+            min = (int) Math.min(min, sum);
+        }
+        return min;
+    }
+
+    private void advance(long nowNanos) {
+        long targetSlot = Math.floorDiv(nowNanos, slotNanos);
+        // After a long pause every slot is stale, clearing them once is enough
+        long steps = Math.min(targetSlot - currentSlot, slots.length);
+
+        for (long i = 1; i <= steps; i++) {
+            Arrays.fill(slots[slotIndex(currentSlot + i)], 0);
+        }
+
+        currentSlot = Math.max(currentSlot, targetSlot);
+    }
+
+    private int slotIndex(long slot) {
+        return (int) Math.floorMod(slot, (long) slots.length);
+    }
+
+    private int index(int row, long key) {
+        return row * width + ((int) mix(key ^ (SEED_INCREMENT * (row + 1))) & columnMask);
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
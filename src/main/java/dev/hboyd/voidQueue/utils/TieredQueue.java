@@ -0,0 +1,186 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Queue split into priority tiers, where every value in a higher tier is ahead of every value in a lower tier.
+ *
+ * <p>Within a tier values are ordered by the sequence they were added with, lowest first, so a value removed from the
+ * queue can later be put back exactly where it was. A bitmap records which tiers are non-empty, so finding the highest
+ * non-empty tier is a single leading-zero count no matter how many tiers there are. Changes are serialized so the
+ * bitmap always matches the tiers, while peeking and iterating take no lock and are weakly consistent.</p>
+ *
+ * @param <T> the queued values, each queued at most once
+ */
+public final class TieredQueue<T> implements Iterable<T> {
+    public static final int MAX_TIERS = Long.SIZE;
+
+    private record Position(int tier, long sequence) {}
+
+    private final ConcurrentSkipListMap<Long, T>[] tiers;
+    private final ConcurrentHashMap<T, Position> positions;
+    private volatile long nonEmptyTiers;
+
+    @SuppressWarnings("unchecked")
+    public TieredQueue(int tierCount) {
+        if (tierCount <= 0 || tierCount > MAX_TIERS)
+            throw new IllegalArgumentException("tierCount must be between 1 and " + MAX_TIERS);
+
+        this.tiers = new ConcurrentSkipListMap[tierCount];
+        for (int i = 0; i < tierCount; i++) tiers[i] = new ConcurrentSkipListMap<>();
+        this.positions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a value to its tier, behind every value with a lower sequence. Tiers outside the queue's range are clamped
+     * to it.
+     *
+     * @param sequence the order of the value within its tier, which must be unique within the tier
+     */
+    public synchronized void add(@NotNull T value, int tier, long sequence) {
+        tier = clamp(tier);
+        if (tiers[tier].putIfAbsent(sequence, value) != null)
+            throw new IllegalArgumentException("sequence " + sequence + " is already queued in tier " + tier);
+
+        Position previous = positions.put(value, new Position(tier, sequence));
+        if (previous != null) {
+            tiers[previous.tier()].remove(previous.sequence(), value);
+            if (tiers[previous.tier()].isEmpty()) nonEmptyTiers &= ~(1L << previous.tier());
+        }
+        nonEmptyTiers |= 1L << tier;
+    }
+
+    public synchronized boolean remove(@NotNull T value) {
+        Position position = positions.remove(value);
+        if (position == null) return false;
+
+        tiers[position.tier()].remove(position.sequence(), value);
+        if (tiers[position.tier()].isEmpty()) nonEmptyTiers &= ~(1L << position.tier());
+        return true;
+    }
+
+    /**
+     * Removes and returns the front value of the highest non-empty tier.
+     */
+    public synchronized @Nullable T poll() {
+        long nonEmpty = nonEmptyTiers;
+        while (nonEmpty != 0) {
+            int tier = highestTier(nonEmpty);
+            Map.Entry<Long, T> entry = tiers[tier].pollFirstEntry();
+            if (tiers[tier].isEmpty()) nonEmptyTiers &= ~(1L << tier);
+            if (entry != null) {
+                positions.remove(entry.getValue());
+                return entry.getValue();
+            }
+
+            nonEmpty &= ~(1L << tier);
+        }
+        return null;
+    }
+
+    /**
+     * @return the front value of the highest non-empty tier, without removing it
+     */
+    public @Nullable T peek() {
+        long nonEmpty = nonEmptyTiers;
+        while (nonEmpty != 0) {
+            int tier = highestTier(nonEmpty);
+            Map.Entry<Long, T> entry = tiers[tier].firstEntry();
+            if (entry != null) return entry.getValue();
+
+            // Emptied since the bitmap was read
+            nonEmpty &= ~(1L << tier);
+        }
+        return null;
+    }
+
+    /**
+     * @return the tier a value is queued in, or -1 if it is not queued
+     */
+    public int getTier(@NotNull T value) {
+        Position position = positions.get(value);
+        return position == null ? -1 : position.tier();
+    }
+
+    public boolean isEmpty() {
+        return nonEmptyTiers == 0;
+    }
+
+    public int getTierCount() {
+        return tiers.length;
+    }
+
+    /**
+     * Iterates from the highest tier to the lowest, in sequence order within each tier.
+     */
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int tier = tiers.length;
+            private Iterator<T> current = nextTier();
+
+            private Iterator<T> nextTier() {
+                while (--tier >= 0) {
+                    if ((nonEmptyTiers & (1L << tier)) != 0) return tiers[tier].values().iterator();
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (current != null) {
+                    if (current.hasNext()) return true;
+                    current = nextTier();
+                }
+                return false;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Clamps a tier to the range of the queue, as {@link #add} does.
+     */
+    public int clamp(int tier) {
+        return Math.max(0, Math.min(tier, tiers.length - 1));
+    }
+
+    private static int highestTier(long nonEmpty) {
+        return MAX_TIERS - 1 - Long.numberOfLeadingZeros(nonEmpty);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * VoidQueue, a high-performance velocity queueing solution
+ *
+ * Copyright (c) 2025 Harrison Boyd
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.hboyd.voidQueue.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive index of values by username.
+ *
+ * <p>Exact lookups go through a hash map, while prefix lookups walk a sorted map from the first matching username,
+ * so completing a prefix only visits the usernames that start with it.</p>
+ *
+ * @param <T> the value indexed by each username
+ */
+public final class UsernameIndex<T> {
+    private final ConcurrentHashMap<String, T> exact = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, T> sorted = new ConcurrentSkipListMap<>();
+
+    public void put(@NotNull String username, @NotNull T value) {
+        String key = normalize(username);
+        exact.put(key, value);
+        sorted.put(key, value);
+    }
+
+    /**
+     * Removes a username, only if it is still mapped to the given value.
+     */
+    public void remove(@NotNull String username, @NotNull T value) {
+        String key = normalize(username);
+        exact.remove(key, value);
+        sorted.remove(key, value);
+    }
+
+    public Optional<T> get(@NotNull String username) {
+        return Optional.ofNullable(exact.get(normalize(username)));
+    }
+
+    /**
+     * Returns up to {@code limit} values whose username starts with the prefix and which match the filter,
+     * in username order.
+     */
+    public List<T> findByPrefix(@NotNull String prefix, int limit, @NotNull Predicate<T> filter) {
+        List<T> matches = new ArrayList<>(Math.min(limit, 64));
+        String key = normalize(prefix);
+
+        for (var entry : sorted.tailMap(key, true).entrySet()) {
+            if (matches.size() >= limit || !entry.getKey().startsWith(key)) break;
+            if (filter.test(entry.getValue())) matches.add(entry.getValue());
+        }
+        return matches;
+    }
+
+    public int size() {
+        return exact.size();
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}